@@ -2,6 +2,12 @@ package de.slech.dbmanager.compare;
 
 import de.slech.dbmanager.data.DataSet;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Die Klasse beschreibt, wie zwei {@link DataSet}s miteinander verglichen werden sollen. DEFAULT spielt die Reihenfolge
  * der Zeilen keine Rolle, aber es müssen genau die gleichen Zeilen vorhanden sein. Bei den Spalten genügt es,
@@ -11,14 +17,82 @@ import de.slech.dbmanager.data.DataSet;
 public class CompareMode {
 
     static final CompareMode DEFAULT = new CompareMode(false);
+    private static final int DEFAULT_MAX_REPORTED_DIFFERENCES = 20;
     private final boolean exactColumnSet;
     private final boolean exactRowSet;
     private final boolean exactRowSequence;
+    private final Path dumpDirectory;
+    private final List<String> keyColumns;
+    private final int maxReportedDifferences;
+    private final Path diffFile;
 
     public CompareMode(boolean exactRowSequence) {
+        this(exactRowSequence, null, Collections.emptyList(), DEFAULT_MAX_REPORTED_DIFFERENCES, null);
+    }
+
+    private CompareMode(boolean exactRowSequence, Path dumpDirectory, List<String> keyColumns,
+                        int maxReportedDifferences, Path diffFile) {
         this.exactColumnSet = false;
         this.exactRowSet = true;
         this.exactRowSequence = exactRowSequence;
+        this.dumpDirectory = dumpDirectory;
+        this.keyColumns = keyColumns;
+        this.maxReportedDifferences = maxReportedDifferences;
+        this.diffFile = diffFile;
+    }
+
+    /**
+     * Schlägt der Vergleich fehl, werden das erwartete und das tatsächliche DataSet als CSV Dateien in das
+     * Verzeichnis geschrieben. Die Fehlermeldung enthält dann nur die Pfade der Dateien statt der DataSets.
+     * @param dumpDirectory Verzeichnis für die CSV Dateien
+     * @return neuer CompareMode mit dem Verzeichnis
+     */
+    public CompareMode withDumpDirectory(Path dumpDirectory) {
+        return new CompareMode(exactRowSequence, dumpDirectory, keyColumns, maxReportedDifferences, diffFile);
+    }
+
+    /**
+     * Zeilen mit gleichen Werten in den Schlüsselspalten werden einander zugeordnet. Weichen die übrigen Spalten ab,
+     * wird die Zeile als geändert gemeldet statt als fehlend und unerwartet.
+     * @param keyColumns Namen der Schlüsselspalten
+     * @return neuer CompareMode mit den Schlüsselspalten
+     */
+    public CompareMode withKeyColumns(String... keyColumns) {
+        return new CompareMode(exactRowSequence, dumpDirectory,
+                Collections.unmodifiableList(Arrays.asList(keyColumns.clone())), maxReportedDifferences, diffFile);
+    }
+
+    /**
+     * @param maxReportedDifferences maximale Anzahl von Abweichungen, die in der Fehlermeldung aufgeführt werden,
+     *                               Default 20
+     * @return neuer CompareMode mit der maximalen Anzahl
+     */
+    public CompareMode withMaxReportedDifferences(int maxReportedDifferences) {
+        return new CompareMode(exactRowSequence, dumpDirectory, keyColumns, maxReportedDifferences, diffFile);
+    }
+
+    /**
+     * Alle Abweichungen werden zusätzlich in die Datei geschrieben.
+     * @param diffFile Datei für alle Abweichungen, wird überschrieben falls vorhanden
+     * @return neuer CompareMode mit der Datei
+     */
+    public CompareMode withDiffFile(Path diffFile) {
+        return new CompareMode(exactRowSequence, dumpDirectory, keyColumns, maxReportedDifferences, diffFile);
+    }
+
+    /**
+     * Leitet den CompareMode für eine von mehreren gleichzeitig verglichenen Tabellen ab. Die Schlüsselspalten werden
+     * durch die der Tabelle ersetzt, und die Abweichungen werden in eine eigene Datei je Tabelle geschrieben, deren
+     * Name aus dem Namen der Datei, "-" und dem Tabellennamen besteht.
+     * @param tableName Name der Tabelle
+     * @param tableKeyColumns Schlüsselspalten der Tabelle, leer wenn die Tabelle keine hat
+     * @return neuer CompareMode für die Tabelle
+     */
+    public CompareMode forTable(String tableName, List<String> tableKeyColumns) {
+        final Path tableDiffFile = diffFile == null ? null
+                : diffFile.resolveSibling(diffFile.getFileName() + "-" + tableName);
+        return new CompareMode(exactRowSequence, dumpDirectory,
+                Collections.unmodifiableList(new ArrayList<>(tableKeyColumns)), maxReportedDifferences, tableDiffFile);
     }
 
     boolean isExactColumnSet() {
@@ -32,4 +106,20 @@ public class CompareMode {
     boolean isExactRowSequence() {
         return exactRowSequence;
     }
+
+    Path getDumpDirectory() {
+        return dumpDirectory;
+    }
+
+    List<String> getKeyColumns() {
+        return keyColumns;
+    }
+
+    int getMaxReportedDifferences() {
+        return maxReportedDifferences;
+    }
+
+    Path getDiffFile() {
+        return diffFile;
+    }
 }
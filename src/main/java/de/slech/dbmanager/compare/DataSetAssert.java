@@ -1,11 +1,13 @@
 package de.slech.dbmanager.compare;
 
 import de.slech.dbmanager.data.DataSet;
-import de.slech.dbmanager.data.Row;
+import de.slech.dbmanager.exeption.SystemException;
+import de.slech.dbmanager.export.DataSetExporter;
+import de.slech.dbmanager.export.ExportFormat;
 
-import java.util.Iterator;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Mit dieser Klasse können zwei DataSets verglichen werden. Stimmen Sie nicht überein, wird ein
@@ -42,42 +44,40 @@ public class DataSetAssert {
         new DataSetAssert(expected, actual, compareMode).assertContainsExpectedData();
     }
 
-    private void assertContainsExpectedData() {
-        if (compareMode.isExactRowSet() && actual.getRowCount() != expected.getRowCount() ) {
-            final String errorMsg = String.format("Number of expected rows: %d, actual : %d\n%s",
-                    expected.getRowCount(), actual.getRowCount(),
-                    expectedVsActual(expected, actual));
-            throw new AssertionError(errorMsg);
-        }
-        final List<Row> actualRows = actual.stream().collect(Collectors.toList());
-        expected.stream().forEachOrdered(expectedRow -> assertMatchingRowExists(expectedRow, actualRows));
+    /**
+     * Vergleicht die DataSets anhand des angegebenen {@link CompareMode} und liefert alle Abweichungen, ohne einen
+     * AssertionError zu werfen.
+     * @param expected erwartetes Dataset
+     * @param actual tatsächliches Dataset
+     * @param compareMode nach diesem Modus wird verglichen
+     * @return die Abweichungen
+     */
+    public static DiffReport diff(DataSet expected, DataSet actual, CompareMode compareMode) {
+        return DataSetDiff.compare(expected, actual, compareMode);
     }
 
-    private void assertMatchingRowExists(Row expectedRow, List<Row> actualRows) {
-        if (!matchingRowExists(expectedRow, actualRows)) {
-            final String errorMsg = String.format("Expected row not found: %s\n%s",
-                    expectedRow.toString(),
-                    expectedVsActual(expected, actual));
-            throw new AssertionError(errorMsg);
+    private void assertContainsExpectedData() {
+        final DiffReport report = diff(expected, actual, compareMode);
+        if (report.hasDifferences()) {
+            throw new AssertionError(report + "\n" + expectedVsActual());
         }
     }
 
-    private static String expectedVsActual(DataSet expected, DataSet actual) {
-        return String.format("Expected:\n%s\nActual:\n%s\n", expected.toString(), actual.toString());
+    private String expectedVsActual() {
+        if (compareMode.getDumpDirectory() != null) {
+            return String.format("Expected: see %s\nActual: see %s\n",
+                    dump(expected, "expected-"), dump(actual, "actual-"));
+        }
+        return "";
     }
 
-    private boolean matchingRowExists(Row testRow, List<Row> actualRows) {
-        for (Iterator<Row> iterator = actualRows.iterator(); iterator.hasNext(); ) {
-            final Row row = iterator.next();
-            if (row.containsExpectedData(testRow, compareMode.isExactColumnSet())) {
-                iterator.remove();
-                return true;
-            }
-            if (compareMode.isExactRowSequence()) {
-                iterator.remove();
-            }
+    private Path dump(DataSet dataSet, String prefix) {
+        try {
+            final Path file = Files.createTempFile(compareMode.getDumpDirectory(), prefix, ".csv");
+            DataSetExporter.export(dataSet, file, ExportFormat.CSV);
+            return file;
+        } catch (IOException e) {
+            throw new SystemException(e);
         }
-        return false;
     }
-
 }
@@ -0,0 +1,194 @@
+package de.slech.dbmanager.compare;
+
+import de.slech.dbmanager.data.DataSet;
+import de.slech.dbmanager.data.Row;
+import de.slech.dbmanager.exeption.SystemException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Vergleicht zwei DataSets in einem Durchlauf und sammelt alle fehlenden, unerwarteten und geänderten Zeilen.
+ * Die tatsächlichen Zeilen werden über die Schlüsselspalten des {@link CompareMode} indiziert, ohne Schlüsselspalten
+ * oder wenn sie in der erwarteten Zeile fehlen über die Werte der Spalten der erwarteten Zeile. Im Speicher wird nur eine begrenzte Auswahl der Abweichungen
+ * gehalten, alle Abweichungen können in eine Datei geschrieben werden.
+ */
+class DataSetDiff {
+
+    private final CompareMode compareMode;
+    private final List<Row> expectedRows;
+    private final List<Row> actualRows;
+    private final boolean[] consumed;
+    private final Map<List<String>, Map<List<Object>, Deque<Integer>>> indexes = new HashMap<>();
+    private final List<String> sample = new ArrayList<>();
+    private Writer diffWriter;
+    private long missingCount;
+    private long unexpectedCount;
+    private long changedCount;
+
+    private DataSetDiff(DataSet expected, DataSet actual, CompareMode compareMode) {
+        this.compareMode = compareMode;
+        this.expectedRows = expected.stream().collect(Collectors.toList());
+        this.actualRows = actual.stream().collect(Collectors.toList());
+        this.consumed = new boolean[actualRows.size()];
+    }
+
+    static DiffReport compare(DataSet expected, DataSet actual, CompareMode compareMode) {
+        return new DataSetDiff(expected, actual, compareMode).compare();
+    }
+
+    private DiffReport compare() {
+        try {
+            if (compareMode.getDiffFile() != null) {
+                diffWriter = Files.newBufferedWriter(compareMode.getDiffFile(), StandardCharsets.UTF_8);
+            }
+            try {
+                if (compareMode.isExactRowSequence()) {
+                    compareSequence();
+                } else {
+                    compareSet();
+                }
+                if (compareMode.isExactRowSet()) {
+                    reportUnconsumedRows();
+                }
+            } finally {
+                if (diffWriter != null) {
+                    diffWriter.close();
+                }
+            }
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+        return new DiffReport(expectedRows.size(), actualRows.size(), missingCount, unexpectedCount, changedCount,
+                sample, compareMode.getDiffFile());
+    }
+
+    private void compareSequence() throws IOException {
+        final int commonSize = Math.min(expectedRows.size(), actualRows.size());
+        for (int i = 0; i < commonSize; i++) {
+            consumed[i] = true;
+            if (!matches(expectedRows.get(i), actualRows.get(i))) {
+                changed("at position " + i, expectedRows.get(i), actualRows.get(i));
+            }
+        }
+        for (int i = commonSize; i < expectedRows.size(); i++) {
+            missing(expectedRows.get(i));
+        }
+    }
+
+    private void compareSet() throws IOException {
+        final List<String> keyColumns = compareMode.getKeyColumns();
+        for (Row expectedRow : expectedRows) {
+            final boolean keyed = !keyColumns.isEmpty() && expectedRow.getColumns().keySet().containsAll(keyColumns);
+            final List<String> indexColumns = keyed
+                    ? keyColumns : new ArrayList<>(new TreeSet<>(expectedRow.getColumns().keySet()));
+            final Deque<Integer> candidates = getIndex(indexColumns).get(values(expectedRow, indexColumns));
+            final Integer match = candidates == null ? null : pollMatch(candidates, expectedRow);
+            final Integer changedRow = match != null || !keyed ? null : pollUnconsumed(candidates);
+            if (match != null) {
+                consumed[match] = true;
+            } else if (changedRow != null) {
+                consumed[changedRow] = true;
+                changed("with key " + values(expectedRow, keyColumns), expectedRow, actualRows.get(changedRow));
+            } else {
+                missing(expectedRow);
+            }
+        }
+    }
+
+    private Integer pollMatch(Deque<Integer> candidates, Row expectedRow) {
+        for (Integer candidate : candidates) {
+            if (!consumed[candidate] && matches(expectedRow, actualRows.get(candidate))) {
+                candidates.remove(candidate);
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Integer pollUnconsumed(Deque<Integer> candidates) {
+        while (candidates != null && !candidates.isEmpty()) {
+            final Integer candidate = candidates.pollFirst();
+            if (!consumed[candidate]) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(Row expectedRow, Row actualRow) {
+        return actualRow.containsExpectedData(expectedRow, compareMode.isExactColumnSet());
+    }
+
+    private Map<List<Object>, Deque<Integer>> getIndex(List<String> columns) {
+        return indexes.computeIfAbsent(columns, this::createIndex);
+    }
+
+    private Map<List<Object>, Deque<Integer>> createIndex(List<String> columns) {
+        final Map<List<Object>, Deque<Integer>> index = new HashMap<>();
+        for (int i = 0; i < actualRows.size(); i++) {
+            final Row actualRow = actualRows.get(i);
+            if (actualRow.getColumns().keySet().containsAll(columns)) {
+                index.computeIfAbsent(values(actualRow, columns), key -> new ArrayDeque<>()).add(i);
+            }
+        }
+        return index;
+    }
+
+    private static List<Object> values(Row row, Collection<String> columns) {
+        final List<Object> values = new ArrayList<>(columns.size());
+        columns.forEach(column -> values.add(row.getColumnValue(column)));
+        return values;
+    }
+
+    private void reportUnconsumedRows() throws IOException {
+        for (int i = 0; i < actualRows.size(); i++) {
+            if (!consumed[i]) {
+                unexpectedCount++;
+                report("Unexpected row: " + actualRows.get(i));
+            }
+        }
+    }
+
+    private void missing(Row expectedRow) throws IOException {
+        missingCount++;
+        report("Expected row not found: " + expectedRow);
+    }
+
+    private void changed(String position, Row expectedRow, Row actualRow) throws IOException {
+        changedCount++;
+        final StringBuilder sb = new StringBuilder("Changed row ").append(position).append(':');
+        for (Map.Entry<String, Object> column : expectedRow.getColumns().entrySet()) {
+            final Object actualValue = actualRow.getColumnValue(column.getKey());
+            if (!actualRow.getColumns().containsKey(column.getKey())) {
+                sb.append(String.format(" (%s: expected \"%s\", actual missing)", column.getKey(), column.getValue()));
+            } else if (!Objects.equals(column.getValue(), actualValue)) {
+                sb.append(String.format(" (%s: expected \"%s\", actual \"%s\")",
+                        column.getKey(), column.getValue(), actualValue));
+            }
+        }
+        report(sb.toString());
+    }
+
+    private void report(String difference) throws IOException {
+        if (sample.size() < compareMode.getMaxReportedDifferences()) {
+            sample.add(difference);
+        }
+        if (diffWriter != null) {
+            diffWriter.write(difference);
+            diffWriter.write(System.lineSeparator());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package de.slech.dbmanager.compare;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ergebnis des Vergleichs zweier DataSets: die Anzahl der fehlenden, unerwarteten und geänderten Zeilen und eine
+ * begrenzte Auswahl der Abweichungen, siehe {@link CompareMode#withMaxReportedDifferences(int)}.
+ */
+public class DiffReport {
+
+    private final int expectedRowCount;
+    private final int actualRowCount;
+    private final long missingCount;
+    private final long unexpectedCount;
+    private final long changedCount;
+    private final List<String> sample;
+    private final Path diffFile;
+
+    DiffReport(int expectedRowCount, int actualRowCount, long missingCount, long unexpectedCount, long changedCount,
+               List<String> sample, Path diffFile) {
+        this.expectedRowCount = expectedRowCount;
+        this.actualRowCount = actualRowCount;
+        this.missingCount = missingCount;
+        this.unexpectedCount = unexpectedCount;
+        this.changedCount = changedCount;
+        this.sample = Collections.unmodifiableList(new ArrayList<>(sample));
+        this.diffFile = diffFile;
+    }
+
+    public boolean hasDifferences() {
+        return missingCount + unexpectedCount + changedCount > 0;
+    }
+
+    public int getExpectedRowCount() {
+        return expectedRowCount;
+    }
+
+    public int getActualRowCount() {
+        return actualRowCount;
+    }
+
+    /**
+     * @return Anzahl der erwarteten Zeilen, zu denen keine Zeile gefunden wurde
+     */
+    public long getMissingCount() {
+        return missingCount;
+    }
+
+    /**
+     * @return Anzahl der tatsächlichen Zeilen, die keiner erwarteten Zeile zugeordnet wurden
+     */
+    public long getUnexpectedCount() {
+        return unexpectedCount;
+    }
+
+    /**
+     * @return Anzahl der Zeilen, deren Schlüssel gefunden wurde, deren übrige Spalten aber abweichen
+     */
+    public long getChangedCount() {
+        return changedCount;
+    }
+
+    /**
+     * @return die ersten Abweichungen als Text
+     */
+    public List<String> getSample() {
+        return sample;
+    }
+
+    /**
+     * @return Datei mit allen Abweichungen oder {@code null}
+     */
+    public Path getDiffFile() {
+        return diffFile;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(String.format(
+                "Number of expected rows: %d, actual: %d, missing: %d, unexpected: %d, changed: %d",
+                expectedRowCount, actualRowCount, missingCount, unexpectedCount, changedCount));
+        sample.forEach(difference -> sb.append('\n').append(difference));
+        final long differences = missingCount + unexpectedCount + changedCount;
+        if (differences > sample.size()) {
+            sb.append(String.format("\n... %d more differences", differences - sample.size()));
+        }
+        if (diffFile != null) {
+            sb.append("\nAll differences: ").append(diffFile);
+        }
+        return sb.toString();
+    }
+}
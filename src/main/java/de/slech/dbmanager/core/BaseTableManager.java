@@ -1,6 +1,9 @@
 package de.slech.dbmanager.core;
 
 import de.slech.dbmanager.data.DataSet;
+import de.slech.dbmanager.data.Row;
+
+import java.util.stream.Stream;
 
 /**
  * Dieses Interface enthält die Operationen, um eine Interaktion mit der Tabelle zu starten, die durch den Typ Parameter
@@ -26,6 +29,47 @@ public interface BaseTableManager<T extends TableManager> {
      */
     DataSet getAll();
 
+    /**
+     * Führt eine Query aus, die alle Datensätze zurückliefert. Die Tabelle wird anhand der numerischen Spalte, deren
+     * Methode mit {@link javax.persistence.Id} annotiert ist, in Bereiche aufgeteilt, die parallel auf höchstens vier
+     * eigenen Verbindungen gelesen werden.
+     * @param partitions Anzahl der Bereiche
+     * @param ordered true, wenn die Zeilen nach der Schlüsselspalte sortiert geliefert werden sollen
+     * @return das Ergebnis der Query als Dataset
+     */
+    DataSet getAllParallel(int partitions, boolean ordered);
+
+    /**
+     * Wie {@link #getAllParallel(int, boolean)}, die Bereiche werden aber auf höchstens {@code threads} Verbindungen
+     * gleichzeitig gelesen.
+     * @param partitions Anzahl der Bereiche
+     * @param threads maximale Anzahl gleichzeitig gelesener Bereiche und damit belegter Verbindungen
+     * @param ordered true, wenn die Zeilen nach der Schlüsselspalte sortiert geliefert werden sollen
+     * @return das Ergebnis der Query als Dataset
+     */
+    DataSet getAllParallel(int partitions, int threads, boolean ordered);
+
+    /**
+     * Wie {@link #getAllParallel(int, boolean)}, die Zeilen werden aber als Stream geliefert. Jeder Bereich wird
+     * vollständig in ein Dataset gelesen, bevor seine Zeilen geliefert werden; liest der Aufrufer langsamer als die
+     * Datenbank liefert, können daher mehrere gelesene Bereiche gleichzeitig im Speicher liegen. Ohne Sortierung
+     * werden die Zeilen eines Bereichs geliefert, sobald er gelesen ist.
+     * @param partitions Anzahl der Bereiche
+     * @param ordered true, wenn die Zeilen nach der Schlüsselspalte sortiert geliefert werden sollen
+     * @return die Zeilen der Tabelle
+     */
+    Stream<Row> streamAllParallel(int partitions, boolean ordered);
+
+    /**
+     * Wie {@link #streamAllParallel(int, boolean)}, die Bereiche werden aber auf höchstens {@code threads}
+     * Verbindungen gleichzeitig gelesen.
+     * @param partitions Anzahl der Bereiche
+     * @param threads maximale Anzahl gleichzeitig gelesener Bereiche und damit belegter Verbindungen
+     * @param ordered true, wenn die Zeilen nach der Schlüsselspalte sortiert geliefert werden sollen
+     * @return die Zeilen der Tabelle
+     */
+    Stream<Row> streamAllParallel(int partitions, int threads, boolean ordered);
+
     /**
      * ein DataSet soll für die Tabelle erstellt werden
      * @return das Interface, das die Tabelle beschreibt
@@ -0,0 +1,152 @@
+package de.slech.dbmanager.core;
+
+import de.slech.dbmanager.data.Row;
+import de.slech.dbmanager.exeption.SystemException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pipeline, die Zeilen eines Producers über eine beschränkte Queue an mehrere Writer verteilt. Jeder Writer hat eine
+ * eigene Verbindung und fügt die Zeilen per JDBC Batch ein. Ist die Queue voll, blockiert der Producer (Backpressure).
+ */
+class BatchInsertPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchInsertPipeline.class);
+    private static final List<Row> END_OF_ROWS = Collections.emptyList();
+
+    private final JdbcHelper jdbcHelper;
+    private final String tableName;
+    private final int batchSize;
+    private final int writers;
+    private final BlockingQueue<List<Row>> queue;
+    private final ExecutorService executor;
+    private final AtomicLong writtenRows = new AtomicLong();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private List<Row> currentBatch;
+
+    BatchInsertPipeline(JdbcHelper jdbcHelper, String tableName, int writers, int batchSize, int queueCapacity) {
+        if (writers < 1 || batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("writers, batchSize and queueCapacity must be greater than 0.");
+        }
+        this.jdbcHelper = jdbcHelper;
+        this.tableName = tableName;
+        this.batchSize = batchSize;
+        this.writers = writers;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = Executors.newFixedThreadPool(writers);
+        this.currentBatch = new ArrayList<>(batchSize);
+        for (int i = 0; i < writers; i++) {
+            executor.execute(this::writeBatches);
+        }
+    }
+
+    /**
+     * Übergibt eine Zeile an die Pipeline. Blockiert, solange die Queue voll ist.
+     * @param row einzufügende Zeile
+     */
+    void add(Row row) {
+        if (row.isEmpty()) {
+            throw new IllegalArgumentException("Row has no columns.");
+        }
+        currentBatch.add(row);
+        if (currentBatch.size() >= batchSize) {
+            put(currentBatch);
+            currentBatch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Schreibt die restlichen Zeilen, wartet auf alle Writer und wirft den ersten Fehler eines Writers.
+     * @return Anzahl der eingefügten Zeilen
+     */
+    long finish() {
+        try {
+            if (!currentBatch.isEmpty()) {
+                put(currentBatch);
+                currentBatch = new ArrayList<>(batchSize);
+            }
+            for (int i = 0; i < writers; i++) {
+                put(END_OF_ROWS);
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOGGER.debug("Warte auf Writer für Tabelle {}", tableName);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort();
+            throw new SystemException(e);
+        } catch (RuntimeException e) {
+            abort();
+            throw e;
+        }
+        throwFailure();
+        return writtenRows.get();
+    }
+
+    /**
+     * Bricht die Pipeline ab, noch nicht geschriebene Zeilen werden verworfen.
+     */
+    void abort() {
+        queue.clear();
+        executor.shutdownNow();
+    }
+
+    private void put(List<Row> batch) {
+        try {
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                throwFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException(e);
+        }
+        throwFailure();
+    }
+
+    private void throwFailure() {
+        final RuntimeException e = failure.get();
+        if (e != null) {
+            abort();
+            throw e;
+        }
+    }
+
+    private void writeBatches() {
+        try (Connection connection = jdbcHelper.getConnection()) {
+            connection.setAutoCommit(false);
+            List<Row> batch = queue.take();
+            while (batch != END_OF_ROWS) {
+                try {
+                    jdbcHelper.executeBatchInsert(connection, tableName, batch);
+                    connection.commit();
+                    jdbcHelper.recordBatchInsert(tableName, batch);
+                } catch (Exception e) {
+                    connection.rollback();
+                    throw e;
+                }
+                writtenRows.addAndGet(batch.size());
+                batch = queue.take();
+            }
+        } catch (SQLException e) {
+            failure.compareAndSet(null, new SystemException(e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package de.slech.dbmanager.core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fingerprints of tables recorded by {@link DatabaseManager#captureChanges}. The fingerprints are compared with the
+ * current state of the tables, and only the changed rows are read:
+ * <pre>
+ * ChangeCapture capture = dbm.captureChanges(Arrays.asList(IUser.class, IRole.class));
+ * userService.deactivate("login1");
+ * TableChanges userChanges = capture.getChanges(IUser.class);
+ * </pre>
+ * The fingerprints are kept, so every call compares with the state at the time of the capture.
+ */
+public class ChangeCapture {
+
+    private final JdbcHelper jdbcHelper;
+    private final Map<String, TableFingerprint> fingerprints;
+
+    ChangeCapture(JdbcHelper jdbcHelper, Map<String, TableFingerprint> fingerprints) {
+        this.jdbcHelper = jdbcHelper;
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * @return the changes per table name of all captured tables
+     */
+    public Map<String, TableChanges> getChanges() {
+        final Map<String, TableChanges> changes = new LinkedHashMap<>();
+        fingerprints.forEach((tableName, fingerprint) -> changes.put(tableName, fingerprint.getChanges(jdbcHelper)));
+        return Collections.unmodifiableMap(changes);
+    }
+
+    /**
+     * @param tableClass class of a captured table
+     * @return the changes of the table
+     */
+    public TableChanges getChanges(Class<? extends TableManager<?>> tableClass) {
+        final TableFingerprint fingerprint = fingerprints.get(DatabaseManager.getTableName(tableClass));
+        if (fingerprint == null) {
+            throw new IllegalArgumentException("The changes of " + tableClass.getName() + " were not captured.");
+        }
+        return fingerprint.getChanges(jdbcHelper);
+    }
+}
@@ -0,0 +1,172 @@
+package de.slech.dbmanager.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Generates a large number of rows for the table described by a {@link TableManager} interface. The rows are built
+ * with the same semantics as {@link BaseTableManager#setDefaultValues()} and {@link BaseTableManager#generateValuesFor()},
+ * but they are not collected in memory: they are passed through a bounded queue to batched inserts which run on
+ * several connections in parallel.
+ * <p>
+ * Values that vary per row are not given as one supplier per column but by a callback per row, see
+ * {@link #withValues(ObjLongConsumer)}. It sets the columns through the methods of the interface, so the column names
+ * and value types are checked by the compiler, and values of several columns can be derived from each other.
+ * <pre>
+ * GeneratorReport report = dbm.createDataGenerator(User.class)
+ *         .setDefaultValues(user -&gt; user.active(true).usertype("admin"))
+ *         .generateValuesFor(user -&gt; user.id(1))
+ *         .withValues((user, i) -&gt; user.lastname("Huber" + i).firstname("Fritz").login("login" + i))
+ *         .rowCount(1_000_000)
+ *         .execute();
+ * </pre>
+ * @param <T> type of the table manager interface
+ */
+public class DataGenerator<T extends TableManager<T>> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataGenerator.class);
+
+    private final Class<T> tableClass;
+    private final JdbcHelper jdbcHelper;
+    private final List<Consumer<T>> defaultValues = new ArrayList<>();
+    private final List<Consumer<T>> generatedValues = new ArrayList<>();
+    private final List<ObjLongConsumer<T>> rowValues = new ArrayList<>();
+    private long rowCount;
+    private int batchSize = 1000;
+    private int connections = 4;
+    private int queueCapacity = 16;
+
+    DataGenerator(Class<T> tableClass, JdbcHelper jdbcHelper) {
+        this.tableClass = tableClass;
+        this.jdbcHelper = jdbcHelper;
+    }
+
+    /**
+     * Sets default values for all rows, the passed consumer is called on the table manager after
+     * {@link BaseTableManager#setDefaultValues()}.
+     * @param defaults sets the default values
+     * @return this generator
+     */
+    public DataGenerator<T> setDefaultValues(Consumer<T> defaults) {
+        defaultValues.add(defaults);
+        return this;
+    }
+
+    /**
+     * Sets the start values of generated columns, the passed consumer is called on the table manager after
+     * {@link BaseTableManager#generateValuesFor()}.
+     * @param generated sets the start values
+     * @return this generator
+     */
+    public DataGenerator<T> generateValuesFor(Consumer<T> generated) {
+        generatedValues.add(generated);
+        return this;
+    }
+
+    /**
+     * Adds column values which are supplied for every row. The consumer gets the table manager positioned on the
+     * current row and the index of the row, starting with 0.
+     * @param columnValues sets the column values of a row
+     * @return this generator
+     */
+    public DataGenerator<T> withValues(ObjLongConsumer<T> columnValues) {
+        rowValues.add(columnValues);
+        return this;
+    }
+
+    /**
+     * @param rowCount number of rows to generate
+     * @return this generator
+     */
+    public DataGenerator<T> rowCount(long rowCount) {
+        this.rowCount = rowCount;
+        return this;
+    }
+
+    /**
+     * @param batchSize number of rows per JDBC batch and transaction, default 1000
+     * @return this generator
+     */
+    public DataGenerator<T> batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * @param connections number of connections inserting in parallel, default 4. During a transaction, see
+     *                    {@link DatabaseManager#beginTransaction()}, only the connection of the transaction is used.
+     * @return this generator
+     */
+    public DataGenerator<T> connections(int connections) {
+        this.connections = connections;
+        return this;
+    }
+
+    /**
+     * @param queueCapacity number of batches which may wait for a free connection, default 16
+     * @return this generator
+     */
+    public DataGenerator<T> queueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * Generates the rows and writes them into the table.
+     * @return number of written rows and throughput
+     */
+    public GeneratorReport execute() {
+        final DatabaseManager.TableManagerInvocationHandler handler =
+                new DatabaseManager.TableManagerInvocationHandler(tableClass, jdbcHelper);
+        final T tableManager = tableClass.cast(Proxy.newProxyInstance(tableClass.getClassLoader(),
+                new Class[]{tableClass}, handler));
+        final String tableName = tableManager.getTableName();
+        final long start = System.currentTimeMillis();
+        final int writers = jdbcHelper.isTransactionActive() ? 1 : connections;
+        final BatchInsertPipeline pipeline =
+                new BatchInsertPipeline(jdbcHelper, tableName, writers, batchSize, queueCapacity);
+        handler.setRowSink(pipeline::add);
+        final long writtenRows;
+        try {
+            generateRows(tableManager);
+            writtenRows = pipeline.finish();
+        } catch (RuntimeException e) {
+            pipeline.abort();
+            throw e;
+        }
+        final GeneratorReport report =
+                new GeneratorReport(tableName, writtenRows, System.currentTimeMillis() - start);
+        LOGGER.info("{}", report);
+        return report;
+    }
+
+    private void generateRows(T tableManager) {
+        if (!defaultValues.isEmpty()) {
+            tableManager.setDefaultValues();
+            defaultValues.forEach(defaults -> defaults.accept(tableManager));
+        }
+        if (!generatedValues.isEmpty()) {
+            tableManager.generateValuesFor();
+            generatedValues.forEach(generated -> generated.accept(tableManager));
+        }
+        if (rowCount <= 0) {
+            return;
+        }
+        tableManager.newDataSetWithRow();
+        for (long i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                tableManager.andRow();
+            }
+            for (ObjLongConsumer<T> values : rowValues) {
+                values.accept(tableManager, i);
+            }
+        }
+        tableManager.buildDataset();
+    }
+}
@@ -1,9 +1,15 @@
 package de.slech.dbmanager.core;
 
 
+import de.slech.dbmanager.compare.CompareMode;
+import de.slech.dbmanager.compare.DataSetAssert;
+import de.slech.dbmanager.compare.DiffReport;
 import de.slech.dbmanager.converter.EnumToNameConverter;
 import de.slech.dbmanager.data.DataSet;
 import de.slech.dbmanager.data.Row;
+import de.slech.dbmanager.export.DataSetExporter;
+import de.slech.dbmanager.export.ExportFormat;
+import de.slech.dbmanager.export.RowWriter;
 import de.slech.dbmanager.util.StringUtils;
 import de.slech.dbmanager.exeption.SystemException;
 import org.slf4j.Logger;
@@ -12,16 +18,36 @@ import org.slf4j.LoggerFactory;
 import javax.persistence.AttributeConverter;
 import javax.persistence.Column;
 import javax.persistence.Convert;
+import javax.persistence.Id;
 import javax.persistence.Table;
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 /**
  * Über diese Klasse kann ein dynamischer Proxy für ein Interface erzeugt werden, das TableManager erweitert.
  * Dieses Interface beschreibt eine Datenbanktabelle.
@@ -40,9 +66,14 @@ import java.util.stream.Collectors;
  */
 public class DatabaseManager {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseManager.class);
+    private static final int DEFAULT_THREADS = 4;
+    private static final int COPY_BATCH_SIZE = 1000;
+    private static final int COPY_QUEUE_CAPACITY = 4;
+
     private final JdbcHelper jdbcHelper;
 
-    private static String getTableName(Class<? extends TableManager<?>> tableClass) {
+    static String getTableName(Class<? extends TableManager<?>> tableClass) {
         final Table tblAnno = tableClass.getAnnotation(Table.class);
         if (tblAnno != null && !StringUtils.isBlank(tblAnno.name())) {
             return tblAnno.name();
@@ -55,16 +86,244 @@ public class DatabaseManager {
     }
 
     /**
-     * Creates a tabl manager of the passed class
+     * Creates a tabl manager of the passed class. The methods of the class are checked against the columns of the
+     * table, which are read once from the {@link java.sql.DatabaseMetaData} and cached.
      * @param tableClass table manager class
      * @param <T> type of the table manager class
      * @return new Tablemanager
+     * @throws IllegalArgumentException if the table does not exist or has no column for a method of the class
      */
     public <T extends TableManager<T>> BaseTableManager<T> createTableManager(Class<T> tableClass) {
         return tableClass.cast(Proxy.newProxyInstance(tableClass.getClassLoader(), new Class[]{tableClass},
                 new TableManagerInvocationHandler(tableClass, jdbcHelper)));
     }
 
+    /**
+     * Creates a generator which writes a large number of rows into the table of the passed class. The rows are not
+     * collected in a {@link DataSet} but streamed to batched inserts on several connections.
+     * @param tableClass table manager class
+     * @param <T> type of the table manager class
+     * @return new generator
+     */
+    public <T extends TableManager<T>> DataGenerator<T> createDataGenerator(Class<T> tableClass) {
+        return new DataGenerator<>(tableClass, jdbcHelper);
+    }
+
+    /**
+     * Writes all rows of the table of the passed class into a file. The rows are read with a cursor and written one
+     * by one, so the memory needed does not depend on the size of the table.
+     * @param tableClass table manager class
+     * @param file target file, is overwritten if it exists
+     * @param format format of the file
+     */
+    public void exportTable(Class<? extends TableManager<?>> tableClass, Path file, ExportFormat format) {
+        final TableManagerInvocationHandler handler = new TableManagerInvocationHandler(tableClass, jdbcHelper);
+        final List<String> columns = new ArrayList<>(handler.getColumnNames());
+        try (RowWriter writer = DataSetExporter.createWriter(file, columns, format)) {
+            jdbcHelper.streamAll(getTableName(tableClass), columns, row -> writeRow(writer, row));
+        } catch (IOException e) {
+            throw new SystemException(e);
+        } catch (UncheckedIOException e) {
+            throw new SystemException(e.getCause());
+        }
+    }
+
+    private static void writeRow(RowWriter writer, Row row) {
+        try {
+            writer.writeRow(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compares the content of several tables with the expected data, see {@link #verifyExpectedState(Map, CompareMode,
+     * int)}. The tables are compared with {@code new CompareMode(false)} on at most four connections.
+     * @param expectedData expected data per table manager class
+     * @return the differences of all tables
+     */
+    public VerificationReport verifyExpectedState(Map<Class<? extends TableManager<?>>, DataSet> expectedData) {
+        return verifyExpectedState(expectedData, new CompareMode(false), DEFAULT_THREADS);
+    }
+
+    /**
+     * Compares the content of several tables with the expected data. The tables are read and compared concurrently,
+     * each on its own connection. A difference or an error in one table does not stop the verification of the
+     * other tables. During a transaction, see {@link #beginTransaction()}, the tables are read one after another on the
+     * connection of the transaction.
+     * @param expectedData expected data per table manager class
+     * @param compareMode mode used to compare each table. Rows are matched by the {@code @Id} columns of each table
+     *                    instead of the key columns of the mode, and the differences of each table are written to
+     *                    its own file named after the diff file of the mode, "-" and the table name.
+     * @param threads maximal number of tables read at the same time
+     * @return the differences of all tables
+     */
+    public VerificationReport verifyExpectedState(Map<Class<? extends TableManager<?>>, DataSet> expectedData,
+                                                  CompareMode compareMode, int threads) {
+        final ExecutorService executor = Executors.newFixedThreadPool(poolSize(threads, expectedData.size()));
+        try {
+            final Map<String, Future<DiffReport>> diffReports = new LinkedHashMap<>();
+            expectedData.forEach((tableClass, expected) -> diffReports.put(getTableName(tableClass),
+                    executor.submit(() -> verifyTable(tableClass, expected, compareMode))));
+            final VerificationReport report = new VerificationReport();
+            for (Map.Entry<String, Future<DiffReport>> diffReport : diffReports.entrySet()) {
+                try {
+                    report.addDiffReport(diffReport.getKey(), diffReport.getValue().get());
+                } catch (ExecutionException e) {
+                    report.addError(diffReport.getKey(), e.getCause());
+                }
+            }
+            return report;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * During a transaction all tables are read on the one connection of the transaction, so they are read one after
+     * another.
+     */
+    private int poolSize(int threads, int tableCount) {
+        if (jdbcHelper.isTransactionActive()) {
+            return 1;
+        }
+        return Math.max(1, Math.min(threads, tableCount));
+    }
+
+    private DiffReport verifyTable(Class<? extends TableManager<?>> tableClass, DataSet expected,
+                                   CompareMode compareMode) {
+        final TableManagerInvocationHandler handler = new TableManagerInvocationHandler(tableClass, jdbcHelper);
+        final String tableName = getTableName(tableClass);
+        final DataSet actual = jdbcHelper.getAll(tableName, handler.getColumnNames());
+        return DataSetAssert.diff(expected, actual, compareMode.forTable(tableName, handler.getKeyColumns()));
+    }
+
+    /**
+     * Copies the columns declared by the table interfaces to another database, see
+     * {@link #copyTables(List, DataSource, int)}. At most four tables are copied at the same time.
+     * @param tableClasses classes of the tables to copy
+     * @param target database into which the rows are inserted
+     */
+    public void copyTables(List<Class<? extends TableManager<?>>> tableClasses, DataSource target) {
+        copyTables(tableClasses, target, DEFAULT_THREADS);
+    }
+
+    /**
+     * Copies the columns declared by the table interfaces to another database. Columns of the tables without a method
+     * in the interface are not copied, on the target they get their default values. The rows of a table are read with
+     * a cursor and passed through a bounded queue to batched inserts on the target, so the rows are never held in
+     * memory together. On MySQL the rows are streamed with a fetch size of {@link Integer#MIN_VALUE}. The
+     * tables are copied in parallel and must therefore not depend on each other, e.g. by foreign keys. Dependent
+     * tables are copied with separate calls in the order of their dependencies. During a transaction, see
+     * {@link #beginTransaction()}, the tables are read one after another on the connection of the transaction.
+     * @param tableClasses classes of the tables to copy
+     * @param target database into which the rows are inserted
+     * @param threads maximal number of tables copied at the same time
+     */
+    public void copyTables(List<Class<? extends TableManager<?>>> tableClasses, DataSource target, int threads) {
+        final JdbcHelper targetHelper = new JdbcHelper(target);
+        final ExecutorService executor = Executors.newFixedThreadPool(poolSize(threads, tableClasses.size()));
+        try {
+            final List<Future<?>> copies = new ArrayList<>();
+            tableClasses.forEach(tableClass -> copies.add(executor.submit(() -> copyTable(tableClass, targetHelper))));
+            for (Future<?> copy : copies) {
+                copy.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new SystemException((Exception) e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void copyTable(Class<? extends TableManager<?>> tableClass, JdbcHelper targetHelper) {
+        final TableManagerInvocationHandler handler = new TableManagerInvocationHandler(tableClass, jdbcHelper);
+        final String tableName = getTableName(tableClass);
+        targetHelper.validateColumns(tableName, handler.getColumnNames());
+        final BatchInsertPipeline pipeline =
+                new BatchInsertPipeline(targetHelper, tableName, 1, COPY_BATCH_SIZE, COPY_QUEUE_CAPACITY);
+        try {
+            jdbcHelper.streamAll(tableName, handler.getColumnNames(), pipeline::add);
+            LOGGER.info("Tabelle {}: {} Zeilen kopiert", tableName, pipeline.finish());
+        } catch (RuntimeException e) {
+            pipeline.abort();
+            throw e;
+        }
+    }
+
+    /**
+     * Records a compact fingerprint of the tables, the key and a 64 bit hash of every row, to find out later which
+     * rows an action inserted, updated or deleted, see {@link ChangeCapture}. Only the keys of changed rows and the
+     * changed rows themselves are held in memory then. Every table needs exactly one numeric key column whose method
+     * is annotated with {@link javax.persistence.Id}. On PostgreSQL, MySQL and MariaDB the hashes are computed by the
+     * database, on other databases the rows are hashed while they are read.
+     * @param tableClasses classes of the tables whose changes are captured
+     * @return the fingerprints to compare with
+     */
+    public ChangeCapture captureChanges(List<Class<? extends TableManager<?>>> tableClasses) {
+        final Map<String, TableFingerprint> fingerprints = new LinkedHashMap<>();
+        for (Class<? extends TableManager<?>> tableClass : tableClasses) {
+            final TableManagerInvocationHandler handler = new TableManagerInvocationHandler(tableClass, jdbcHelper);
+            final String tableName = getTableName(tableClass);
+            fingerprints.put(tableName, TableFingerprint.read(jdbcHelper, tableName, handler.getKeyColumn(),
+                    handler.getColumnNames()));
+        }
+        return new ChangeCapture(jdbcHelper, fingerprints);
+    }
+
+    /**
+     * Begins a transaction which all following operations of this manager join instead of committing on their own
+     * connection. If a transaction is already running, a savepoint is set instead. Thus a test can be isolated by a
+     * rollback instead of deleting the content of the tables:
+     * <pre>
+     * &#64;BeforeClass: dbm.beginTransaction(); insert baseline data
+     * &#64;Before:      dbm.beginTransaction();    // savepoint
+     * &#64;After:       dbm.rollbackTransaction(); // back to the baseline
+     * &#64;AfterClass:  dbm.rollbackTransaction(); // back to the empty tables
+     * </pre>
+     * The code under test does not see the uncommitted data unless it uses the same connection. If an operation fails
+     * during the transaction, it is not rolled back on its own; {@link #rollbackTransaction()} restores the state.
+     */
+    public void beginTransaction() {
+        jdbcHelper.beginTransaction();
+    }
+
+    /**
+     * Rolls back to the savepoint set by the last {@link #beginTransaction()}. If there is no savepoint, the whole
+     * transaction is rolled back and its connection is closed.
+     */
+    public void rollbackTransaction() {
+        jdbcHelper.rollbackTransaction();
+    }
+
+    /**
+     * Starts recording every statement executed by this manager, with its bound parameters, to a compact log which
+     * can be replayed with {@link StatementReplayer}. The log is appended to the file if it already exists.
+     * @param logFile statement log
+     */
+    public void startRecording(Path logFile) {
+        jdbcHelper.startRecording(logFile);
+    }
+
+    /**
+     * Stops the recording started with {@link #startRecording(Path)} and closes the log.
+     */
+    public void stopRecording() {
+        jdbcHelper.stopRecording();
+    }
+
     /**
      * Executes an sql update statement
      * @param sql sql update statement
@@ -82,23 +341,49 @@ public class DatabaseManager {
                 tableClasses.stream().map(DatabaseManager::getTableName).collect(Collectors.toList()));
     }
 
-    private enum OperationState {NONE, DEFAULT_VALUES, GENERATED_VALUES, QUERY, ROW_IN_DATASET, ROW_IN_INSERT_STMT}
+    private enum OperationState {
+        NONE, DEFAULT_VALUES, GENERATED_VALUES, QUERY, ROW_IN_DATASET, ROW_IN_INSERT_STMT;
+
+        private final int mask = 1 << ordinal();
+
+        private static int maskOf(OperationState... states) {
+            int mask = 0;
+            for (OperationState state : states) {
+                mask |= state.mask;
+            }
+            return mask;
+        }
+    }
 
     /**
-     * Invocationhandler zur Realisierung eines Proxys für Interfaces, die zur Erzeugung von Insert Statements dienen
+     * Invocationhandler zur Realisierung eines Proxys für Interfaces, die zur Erzeugung von Insert Statements dienen.
+     * Jede Spalte hat einen festen Platz in vorab angelegten Arrays für die Werte der aktuellen Zeile, die Default
+     * Werte und die Generatoren. Beim Setzen einer Spalte wird daher außer dem Wert selbst nichts angelegt, und
+     * Default Werte und generierte Werte werden beim Abschluss einer Zeile in einem Durchlauf übernommen.
      */
-    private static class TableManagerInvocationHandler implements InvocationHandler {
+    static class TableManagerInvocationHandler implements InvocationHandler {
 
         private static final Logger LOGGER = LoggerFactory.getLogger(TableManagerInvocationHandler.class);
-        private final Map<String, IntegralValueGenerator<?>> generatedValues = new HashMap<>();
+        private static final int START_STATES = OperationState.maskOf(OperationState.NONE,
+                OperationState.DEFAULT_VALUES, OperationState.GENERATED_VALUES);
+        private static final int COLUMN_STATES = OperationState.maskOf(OperationState.DEFAULT_VALUES,
+                OperationState.GENERATED_VALUES, OperationState.QUERY, OperationState.ROW_IN_DATASET,
+                OperationState.ROW_IN_INSERT_STMT);
+        private static final int ROW_STATES = OperationState.maskOf(OperationState.ROW_IN_DATASET,
+                OperationState.ROW_IN_INSERT_STMT);
         private final String tableName;
-        private final Map<Method, AttributeConverter> converters = new HashMap<>();
-        private final Map<Method, String> columnNames = new HashMap<>();
+        private final Map<Method, ColumnSlot> columnSlots = new HashMap<>();
+        private final List<String> columnNames = new ArrayList<>();
+        private final List<String> keyColumns = new ArrayList<>();
         private final JdbcHelper jdbcHelper;
+        private Object[] currentValues;
+        private boolean[] currentValueSet;
+        private Object[] defaultValues;
+        private boolean[] defaultValueSet;
+        private IntegralValueGenerator<?>[] generators;
         private DataSet dataSet = new DataSet();
-        private Row currentRow = new Row();
-        private Row defaultValues = new Row();
         private OperationState currentOperation = OperationState.NONE;
+        private Consumer<Row> rowSink;
 
         TableManagerInvocationHandler(Class<? extends TableManager<?>> tableClass, JdbcHelper jdbcHelper) {
             this.tableName = getTableName(tableClass);
@@ -106,40 +391,99 @@ public class DatabaseManager {
             Arrays.stream(tableClass.getMethods())
                     .filter(method ->  !BaseTableManager.class.equals(method.getDeclaringClass()) &&
                             !TableManager.class.equals(method.getDeclaringClass()))
-                    .forEach(this::cacheConvertersAndColumnNames);
+                    .forEach(this::cacheColumnSlot);
+            final int columnCount = columnNames.size();
+            currentValues = new Object[columnCount];
+            currentValueSet = new boolean[columnCount];
+            defaultValues = new Object[columnCount];
+            defaultValueSet = new boolean[columnCount];
+            generators = new IntegralValueGenerator<?>[columnCount];
+            jdbcHelper.validateColumns(tableName, columnNames);
+            jdbcHelper.validateColumnTypes(tableName, getValueTypes());
+        }
+
+        /**
+         * @return je Spalte der Typ des Werts, der gebunden wird: der Parametertyp der Methode oder, mit Konverter, der
+         * Datenbanktyp des Konverters, soweit er ermittelbar ist
+         */
+        private Map<String, Class<?>> getValueTypes() {
+            final Map<String, Class<?>> valueTypes = new HashMap<>();
+            columnSlots.forEach((method, columnSlot) -> {
+                final Class<?> valueType = columnSlot.converter != null ? getDatabaseType(columnSlot.converter)
+                        : method.getParameterCount() == 1 ? method.getParameterTypes()[0] : null;
+                if (valueType != null) {
+                    valueTypes.put(columnNames.get(columnSlot.index), valueType);
+                }
+            });
+            return valueTypes;
+        }
+
+        private static Class<?> getDatabaseType(AttributeConverter converter) {
+            for (Class<?> type = converter.getClass(); type != null; type = type.getSuperclass()) {
+                for (Type genericInterface : type.getGenericInterfaces()) {
+                    if (genericInterface instanceof ParameterizedType
+                            && ((ParameterizedType) genericInterface).getRawType() == AttributeConverter.class) {
+                        final Type databaseType = ((ParameterizedType) genericInterface).getActualTypeArguments()[1];
+                        return databaseType instanceof Class ? (Class<?>) databaseType : null;
+                    }
+                }
+            }
+            return null;
         }
 
-        private void cacheConvertersAndColumnNames(Method method) {
-            cacheConverters(method);
-            cacheColumnNames(method);
+        /**
+         * Fertige Zeilen werden nicht dem Dataset hinzugefügt, sondern an den übergebenen Consumer weitergereicht.
+         * @param rowSink Empfänger der fertigen Zeilen
+         */
+        void setRowSink(Consumer<Row> rowSink) {
+            this.rowSink = rowSink;
         }
 
+        Collection<String> getColumnNames() {
+            return Collections.unmodifiableList(columnNames);
+        }
 
-        private void cacheConverters(Method method) {
+        private void cacheColumnSlot(Method method) {
+            final String columnName = getColumnName(method);
+            int index = columnNames.indexOf(columnName);
+            if (index < 0) {
+                index = columnNames.size();
+                columnNames.add(columnName);
+            }
+            columnSlots.put(method, new ColumnSlot(index, getConverter(method)));
+            if (method.isAnnotationPresent(Id.class) && !keyColumns.contains(columnName)) {
+                keyColumns.add(columnName);
+            }
+        }
+
+        private static AttributeConverter getConverter(Method method) {
             final Convert convertAnnotation = method.getAnnotation(Convert.class);
             if (convertAnnotation != null
                     && AttributeConverter.class.isAssignableFrom(convertAnnotation.converter())) {
                 try {
-                    converters.put(method, (AttributeConverter) convertAnnotation.converter().newInstance());
+                    return (AttributeConverter) convertAnnotation.converter().newInstance();
                 } catch (InstantiationException | IllegalAccessException e) {
                     throw new SystemException(e);
                 }
             }
+            return null;
         }
 
-        private void cacheColumnNames(Method method) {
+        private static String getColumnName(Method method) {
             final Column columnAnnotation = method.getAnnotation(Column.class);
             if (columnAnnotation != null && !StringUtils.isBlank(columnAnnotation.name())) {
-                columnNames.put(method, columnAnnotation.name());
-            } else {
-                columnNames.put(method, method.getName());
+                return columnAnnotation.name();
             }
+            return method.getName();
         }
 
-
-
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final ColumnSlot columnSlot = columnSlots.get(method);
+            if (columnSlot != null) {
+                addColumn(columnSlot, method, args);
+                return proxy;
+            }
             if ("getTableName".equals(method.getName())) {
                 return tableName;
             }
@@ -156,6 +500,14 @@ public class DatabaseManager {
             if ("getAll".equals(method.getName())) {
                 return getAll();
             }
+            if ("getAllParallel".equals(method.getName())) {
+                return args.length == 2 ? getAllParallel((Integer) args[0], DEFAULT_THREADS, (Boolean) args[1])
+                        : getAllParallel((Integer) args[0], (Integer) args[1], (Boolean) args[2]);
+            }
+            if ("streamAllParallel".equals(method.getName())) {
+                return args.length == 2 ? streamAllParallel((Integer) args[0], DEFAULT_THREADS, (Boolean) args[1])
+                        : streamAllParallel((Integer) args[0], (Integer) args[1], (Boolean) args[2]);
+            }
             if ("generateValuesFor".equals(method.getName())) {
                 generateValuesFor();
             } else if ("setDefaultValues".equals(method.getName())) {
@@ -169,70 +521,73 @@ public class DatabaseManager {
             } else if ("andRow".equals(method.getName())) {
                 andRow();
             } else {
-                addColumn(method, args);
+                addColumn(null, method, args);
             }
             return proxy;
         }
 
         private void setDefaultValues() {
-            checkState(OperationState.NONE, OperationState.GENERATED_VALUES);
+            checkState(OperationState.maskOf(OperationState.NONE, OperationState.GENERATED_VALUES));
             currentOperation = OperationState.DEFAULT_VALUES;
         }
 
         private void generateValuesFor() {
-            checkState(OperationState.NONE, OperationState.DEFAULT_VALUES);
+            checkState(OperationState.maskOf(OperationState.NONE, OperationState.DEFAULT_VALUES));
             currentOperation = OperationState.GENERATED_VALUES;
         }
 
         private void newQueryWhere() {
-            checkState(OperationState.NONE);
+            checkState(OperationState.NONE.mask);
             currentOperation = OperationState.QUERY;
         }
 
         private void newDataSetWithRow() {
-            checkState(OperationState.NONE, OperationState.DEFAULT_VALUES, OperationState.GENERATED_VALUES);
+            checkState(START_STATES);
             currentOperation = OperationState.ROW_IN_DATASET;
         }
 
         private void newInsertStatementWithRow() {
-            checkState(OperationState.NONE, OperationState.DEFAULT_VALUES, OperationState.GENERATED_VALUES);
+            checkState(START_STATES);
             currentOperation = OperationState.ROW_IN_INSERT_STMT;
         }
 
-        private void addColumn(Method method, Object[] args) {
-            checkState(OperationState.DEFAULT_VALUES, OperationState.GENERATED_VALUES, OperationState.QUERY,
-                    OperationState.ROW_IN_DATASET, OperationState.ROW_IN_INSERT_STMT);
-            if (args!= null && args.length > 0)  {
+        private void addColumn(ColumnSlot columnSlot, Method method, Object[] args) {
+            checkState(COLUMN_STATES);
+            if (columnSlot == null) {
+                LOGGER.warn("Die Methode {} beschreibt keine Spalte", method);
+            } else if (args!= null && args.length > 0)  {
+                final Object value = getValue(columnSlot, args[0]);
                 if (currentOperation == OperationState.GENERATED_VALUES) {
-                    putGeneratorToMap(method, args[0]);
-                    return;
+                    putGenerator(columnSlot, value);
+                } else if (currentOperation == OperationState.DEFAULT_VALUES) {
+                    defaultValues[columnSlot.index] = value;
+                    defaultValueSet[columnSlot.index] = true;
+                } else {
+                    currentValues[columnSlot.index] = value;
+                    currentValueSet[columnSlot.index] = true;
                 }
-                Row usedRow = currentOperation == OperationState.DEFAULT_VALUES ? defaultValues : currentRow;
-                usedRow.addColum(getColName(method), getValue(method, args[0]));
             } else {
                 LOGGER.warn("Die Liste der Argumente für Methode {} ist leer", method);
             }
         }
 
-        private void putGeneratorToMap(Method method, Object arg) {
-            Object convertedArg = getValue(method, arg);
+        private void putGenerator(ColumnSlot columnSlot, Object convertedArg) {
             if (convertedArg instanceof Short) {
-                generatedValues.put(getColName(method), new ShortValueGenerator((Short) convertedArg));
+                generators[columnSlot.index] = new ShortValueGenerator((Short) convertedArg);
             } else if (convertedArg instanceof Integer) {
-                generatedValues.put(getColName(method), new IntegerValueGenerator((Integer) convertedArg));
+                generators[columnSlot.index] = new IntegerValueGenerator((Integer) convertedArg);
             } else if (convertedArg instanceof Long) {
-                generatedValues.put(getColName(method), new LongValueGenerator((Long) convertedArg));
+                generators[columnSlot.index] = new LongValueGenerator((Long) convertedArg);
             }
         }
 
         private void andRow() {
-            checkState(OperationState.ROW_IN_DATASET, OperationState.ROW_IN_INSERT_STMT);
+            checkState(ROW_STATES);
             addRowToDataset();
-            currentRow = new Row();
         }
 
         private void executeStatement() {
-            checkState(OperationState.ROW_IN_INSERT_STMT);
+            checkState(OperationState.ROW_IN_INSERT_STMT.mask);
             addRowToDataset();
             jdbcHelper.executeInsert(tableName, dataSet);
             resetDataSet();
@@ -240,97 +595,209 @@ public class DatabaseManager {
 
         private void resetDataSet() {
             dataSet = new DataSet();
-            currentRow = new Row();
-            defaultValues = new Row();
+            clearCurrentValues();
+            Arrays.fill(defaultValues, null);
+            Arrays.fill(defaultValueSet, false);
+            Arrays.fill(generators, null);
             currentOperation = OperationState.NONE;
-            generatedValues.clear();
+        }
+
+        private void clearCurrentValues() {
+            Arrays.fill(currentValues, null);
+            Arrays.fill(currentValueSet, false);
         }
 
         private DataSet buildDataset() {
-            checkState(OperationState.ROW_IN_DATASET);
+            checkState(OperationState.ROW_IN_DATASET.mask);
             addRowToDataset();
             final DataSet currentDs = dataSet;
             resetDataSet();
             return currentDs;
         }
 
+        /**
+         * Übernimmt in einem Durchlauf je Spalte den gesetzten Wert, sonst den Default Wert in die Zeile. Hat die
+         * Spalte einen Generator, wird ein übernommener Wert ungleich null beibehalten und der Generator über diesen
+         * Wert gesetzt, sonst wird der nächste generierte Wert übernommen.
+         */
         private void addRowToDataset() {
-            addDefaultValuesToCurrentRow();
-            addGeneratedValuesToCurrentRow();
-            dataSet.addRow(currentRow);
+            final Row row = new Row(columnNames.size());
+            for (int i = 0; i < currentValues.length; i++) {
+                final boolean valueSet = currentValueSet[i] || defaultValueSet[i];
+                final Object value = currentValueSet[i] ? currentValues[i] : defaultValues[i];
+                final IntegralValueGenerator<?> generator = generators[i];
+                if (generator != null) {
+                    if (value == null) {
+                        row.addColum(columnNames.get(i), generator.nextValue());
+                    } else {
+                        generator.setValueGreaterThan((Number) value);
+                        row.addColum(columnNames.get(i), value);
+                    }
+                } else if (valueSet) {
+                    row.addColum(columnNames.get(i), value);
+                }
+            }
+            clearCurrentValues();
+            if (rowSink != null) {
+                rowSink.accept(row);
+            } else {
+                dataSet.addRow(row);
+            }
         }
 
-        private void addDefaultValuesToCurrentRow() {
-            defaultValues.getColumns().entrySet().forEach(this::addToCurrentRow);
+        private DataSet executeQuery() {
+            checkState(OperationState.QUERY.mask);
+            final Map<String, Object> columnConditions = new HashMap<>();
+            for (int i = 0; i < currentValues.length; i++) {
+                if (currentValueSet[i]) {
+                    columnConditions.put(columnNames.get(i), currentValues[i]);
+                }
+            }
+            final DataSet result = jdbcHelper.executeQuery(tableName, columnNames, columnConditions);
+            resetDataSet();
+            return result;
         }
 
-        private void addGeneratedValuesToCurrentRow() {
-            generatedValues.entrySet().forEach(this::setGeneratedValue);
-            defaultValues.getColumns().entrySet().forEach(this::addToCurrentRow);
+        private DataSet getAll() {
+            checkState(OperationState.NONE.mask);
+            final DataSet result = jdbcHelper.getAll(tableName, columnNames);
+            resetDataSet();
+            return result;
         }
 
-        private void setGeneratedValue(Map.Entry<String, IntegralValueGenerator<?>> entry) {
-            final String columnName = entry.getKey();
-            final IntegralValueGenerator<?> valueGenerator = entry.getValue();
-            final Object columnValue = currentRow.getColumnValue(columnName);
-            if (columnValue == null) {
-                currentRow.addColum(columnName, valueGenerator.nextValue());
-            } else {
-                valueGenerator.setValueGreaterThan((Number)columnValue);
+        private DataSet getAllParallel(int partitions, int threads, boolean ordered) {
+            final DataSet result = new DataSet();
+            streamAllParallel(partitions, threads, ordered).forEachOrdered(result::addRow);
+            return result;
+        }
+
+        /**
+         * Teilt die Tabelle anhand des kleinsten und größten Schlüssels in gleich breite Bereiche, die parallel auf
+         * höchstens {@code threads} eigenen Verbindungen gelesen werden. Jeder Bereich wird vollständig in ein
+         * Dataset gelesen, bevor seine Zeilen in den Stream gelangen. Während einer Transaktion wird nur ein Bereich
+         * gelesen.
+         */
+        private Stream<Row> streamAllParallel(int partitions, int threads, boolean ordered) {
+            checkState(OperationState.NONE.mask);
+            resetDataSet();
+            final String keyColumn = getKeyColumn();
+            final long[] keyRange = jdbcHelper.getKeyRange(tableName, keyColumn);
+            if (keyRange == null) {
+                return Stream.empty();
+            }
+            final int usedPartitions = jdbcHelper.isTransactionActive() ? 1 : Math.max(1, partitions);
+            if (usedPartitions == 1) {
+                return jdbcHelper.getRange(tableName, columnNames, keyColumn, keyRange[0], keyRange[1], true, ordered)
+                        .stream();
+            }
+            final List<Callable<DataSet>> rangeQueries = new ArrayList<>();
+            final long width = Long.divideUnsigned(keyRange[1] - keyRange[0], usedPartitions) + 1;
+            long from = keyRange[0];
+            while (Long.compareUnsigned(keyRange[1] - from, width) >= 0) {
+                final long rangeFrom = from;
+                final long rangeTo = from + width;
+                rangeQueries.add(() -> jdbcHelper.getRange(tableName, columnNames, keyColumn, rangeFrom, rangeTo,
+                        false, ordered));
+                from = rangeTo;
             }
+            final long lastFrom = from;
+            rangeQueries.add(() -> jdbcHelper.getRange(tableName, columnNames, keyColumn, lastFrom, keyRange[1],
+                    true, ordered));
+            final ExecutorService executor =
+                    Executors.newFixedThreadPool(Math.max(1, Math.min(threads, rangeQueries.size())));
+            try {
+                if (ordered) {
+                    final List<Future<DataSet>> ranges = rangeQueries.stream().map(executor::submit)
+                            .collect(Collectors.toList());
+                    return ranges.stream().flatMap(range -> getResult(range).stream());
+                }
+                final CompletionService<DataSet> completionService = new ExecutorCompletionService<>(executor);
+                rangeQueries.forEach(completionService::submit);
+                return IntStream.range(0, rangeQueries.size())
+                        .mapToObj(i -> getResult(takeCompleted(completionService)))
+                        .flatMap(DataSet::stream);
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        List<String> getKeyColumns() {
+            return Collections.unmodifiableList(keyColumns);
         }
 
-        private void addToCurrentRow(Map.Entry<String, Object> stringObjectEntry) {
-            if (!currentRow.getColumns().containsKey(stringObjectEntry.getKey())) {
-                currentRow.addColum(stringObjectEntry.getKey(), stringObjectEntry.getValue());
+        String getKeyColumn() {
+            if (keyColumns.size() != 1) {
+                throw new IllegalStateException(String.format(
+                        "Table %s needs exactly one numeric column annotated with @Id, found: %s.",
+                        tableName, StringUtils.concatStrings(keyColumns, ",")));
             }
+            return keyColumns.get(0);
         }
 
-        private DataSet executeQuery() {
-            checkState(OperationState.QUERY);
-            final DataSet result = jdbcHelper.executeQuery(tableName, columnNames.values(),
-                    currentRow.getColumns());
-            resetDataSet();
-            return result;
+        private static Future<DataSet> takeCompleted(CompletionService<DataSet> completionService) {
+            try {
+                return completionService.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SystemException(e);
+            }
         }
 
-        private DataSet getAll() {
-            checkState(OperationState.NONE);
-            final DataSet result = jdbcHelper.getAll(tableName, columnNames.values());
-            resetDataSet();
-            return result;
+        private static DataSet getResult(Future<DataSet> range) {
+            try {
+                return range.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SystemException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new SystemException(e);
+            }
         }
 
-        private void checkState(OperationState ... expected) {
-            if (Arrays.stream(expected).noneMatch(operationState ->  operationState == currentOperation)) {
-                final String errorMsg = errorMsgWrongState(currentOperation, expected);
+        private void checkState(int expectedStates) {
+            if ((currentOperation.mask & expectedStates) == 0) {
+                final String errorMsg = errorMsgWrongState(currentOperation, expectedStates);
                 resetDataSet();
                 throw new IllegalStateException(errorMsg);
             }
 
         }
 
-        private String errorMsgWrongState (OperationState currentOperation, OperationState ... expected) {
+        private String errorMsgWrongState (OperationState currentOperation, int expectedStates) {
             return String.format("Wrong operation state, expected: %s, actual: %s.",
-                    StringUtils.concatStrings(Arrays.stream(expected).map(Enum::name).collect(Collectors.toList()),","),
+                    StringUtils.concatStrings(Arrays.stream(OperationState.values())
+                            .filter(operationState -> (operationState.mask & expectedStates) != 0)
+                            .map(Enum::name).collect(Collectors.toList()),","),
                     currentOperation.name());
         }
 
 
         @SuppressWarnings("unchecked")
-        private Object getValue(Method method, Object arg) {
-            AttributeConverter converter = converters.get(method);
-            if ( converter != null) {
-                return converter.convertToDatabaseColumn(arg);
+        private static Object getValue(ColumnSlot columnSlot, Object arg) {
+            if (columnSlot.converter != null) {
+                return columnSlot.converter.convertToDatabaseColumn(arg);
             }
             return arg;
         }
 
-        private String getColName(Method method) {
-            return columnNames.get(method);
-        }
+    }
+
+    /**
+     * Platz einer Spalte in den Arrays des {@link TableManagerInvocationHandler} und ihr Konverter
+     */
+    private static class ColumnSlot {
+        private final int index;
+        private final AttributeConverter converter;
 
+        ColumnSlot(int index, AttributeConverter converter) {
+            this.index = index;
+            this.converter = converter;
+        }
     }
+
     private interface IntegralValueGenerator<T extends Number> {
         T nextValue();
         void setValueGreaterThan(Number newValue);
@@ -0,0 +1,42 @@
+package de.slech.dbmanager.core;
+
+/**
+ * Result of a {@link DataGenerator} run: the number of written rows and the throughput.
+ */
+public class GeneratorReport {
+
+    private final String tableName;
+    private final long rowCount;
+    private final long elapsedMillis;
+
+    GeneratorReport(String tableName, long rowCount, long elapsedMillis) {
+        this.tableName = tableName;
+        this.rowCount = rowCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return written rows per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowCount : rowCount * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Table %s: %d rows in %d ms (%.1f rows/s)",
+                tableName, rowCount, elapsedMillis, getRowsPerSecond());
+    }
+}
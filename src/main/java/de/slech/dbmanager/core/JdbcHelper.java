@@ -8,8 +8,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.sql.*;
+import java.sql.Date;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -18,11 +23,109 @@ import java.util.stream.Collectors;
 class JdbcHelper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcHelper.class);
+    private static final int FETCH_SIZE = 1000;
+    private static final int KEYS_PER_QUERY = 500;
 
     private final DataSource dataSource;
+    private final TableMetaDataCache metaDataCache;
+    private volatile StatementRecorder recorder;
+    private volatile Connection transactionConnection;
+    private final Deque<Savepoint> savepoints = new ArrayDeque<>();
 
     JdbcHelper(DataSource dataSource) {
         this.dataSource = dataSource;
+        this.metaDataCache = new TableMetaDataCache(this::getConnection);
+    }
+
+    /**
+     * Prüft anhand der Metadaten der Datenbank, ob die Tabelle alle übergebenen Spalten enthält.
+     * @throws IllegalArgumentException wenn die Tabelle oder eine der Spalten nicht existiert
+     */
+    void validateColumns(String tableName, Collection<String> columnNames) {
+        metaDataCache.validateColumns(tableName, columnNames);
+    }
+
+    void validateColumnTypes(String tableName, Map<String, Class<?>> javaTypes) {
+        metaDataCache.validateColumnTypes(tableName, javaTypes);
+    }
+
+    /**
+     * Ab jetzt werden alle ausgeführten Statements mit ihren Parametern in die Logdatei geschrieben.
+     */
+    synchronized void startRecording(Path logFile) {
+        if (recorder != null) {
+            throw new IllegalStateException("Recording already started.");
+        }
+        recorder = new StatementRecorder(logFile);
+    }
+
+    synchronized void stopRecording() {
+        if (recorder == null) {
+            throw new IllegalStateException("Recording not started.");
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            throw new SystemException(e);
+        } finally {
+            recorder = null;
+        }
+    }
+
+    /**
+     * Beginnt eine Transaktion, an der alle folgenden Operationen teilnehmen, bis sie mit
+     * {@link #rollbackTransaction()} zurückgerollt wird. Läuft bereits eine Transaktion, wird ein Savepoint gesetzt.
+     */
+    synchronized void beginTransaction() {
+        try {
+            if (transactionConnection == null) {
+                final Connection connection = dataSource.getConnection();
+                connection.setAutoCommit(false);
+                transactionConnection = connection;
+            } else {
+                savepoints.push(transactionConnection.setSavepoint());
+            }
+        } catch (SQLException e) {
+            throw new SystemException(e);
+        }
+    }
+
+    /**
+     * Rollt bis zum zuletzt gesetzten Savepoint zurück. Gibt es keinen Savepoint, wird die Transaktion zurückgerollt
+     * und ihre Verbindung geschlossen.
+     */
+    synchronized void rollbackTransaction() {
+        if (transactionConnection == null) {
+            throw new IllegalStateException("No transaction started.");
+        }
+        try {
+            if (!savepoints.isEmpty()) {
+                final Savepoint savepoint = savepoints.pop();
+                transactionConnection.rollback(savepoint);
+                releaseSavepoint(savepoint);
+            } else {
+                try {
+                    transactionConnection.rollback();
+                } finally {
+                    transactionConnection.close();
+                    transactionConnection = null;
+                }
+            }
+        } catch (SQLException e) {
+            throw new SystemException(e);
+        }
+    }
+
+    private void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        try {
+            transactionConnection.releaseSavepoint(savepoint);
+        } catch (SQLFeatureNotSupportedException e) {
+            LOGGER.debug("Savepoint kann nicht freigegeben werden", e);
+        }
+    }
+
+    boolean isTransactionActive() {
+        return transactionConnection != null;
     }
 
     void deleteAllFromTables(List<String> tablenames) {
@@ -42,10 +145,12 @@ class JdbcHelper {
                 tableName,
                 createWhereClause(columns));
         LOGGER.debug("Wird ausgeführt: " +sqlString);
-        try(Connection connection = dataSource.getConnection();
+        try(Connection connection = getConnection();
             PreparedStatement sqlStmt = connection.prepareStatement(sqlString)) {
-            setParameters(sqlStmt, columns);
-            return executeStatement(searchedColumns, sqlStmt);
+            setParameters(sqlStmt, tableName, columns);
+            final DataSet result = executeStatement(searchedColumns, sqlStmt);
+            recordColumnValues(sqlString, true, tableName, columns);
+            return result;
         } catch (SQLException e) {
             throw new SystemException(e);
         }
@@ -55,43 +160,245 @@ class JdbcHelper {
         String sqlString = String.format("select %s from %s ",
                 StringUtils.concatStrings(searchedColumns, ", "), tableName);
         LOGGER.debug("Wird ausgeführt: " + sqlString);
-        try(Connection connection = dataSource.getConnection();
+        try(Connection connection = getConnection();
+            PreparedStatement sqlStmt = connection.prepareStatement(sqlString)) {
+            final DataSet result = executeStatement(searchedColumns, sqlStmt);
+            record(sqlString, true, Collections.emptyList(), Collections.emptyList());
+            return result;
+        } catch (SQLException e) {
+            throw new SystemException(e);
+        }
+
+    }
+
+    /**
+     * @return kleinster und größter Wert der Spalte oder {@code null}, wenn die Tabelle leer ist
+     */
+    long[] getKeyRange(String tableName, String keyColumn) {
+        String sqlString = String.format("select min(%s), max(%s) from %s", keyColumn, keyColumn, tableName);
+        LOGGER.debug("Wird ausgeführt: " + sqlString);
+        try(Connection connection = getConnection();
             PreparedStatement sqlStmt = connection.prepareStatement(sqlString)) {
-            return executeStatement(searchedColumns, sqlStmt);
+            try (ResultSet resultSet = sqlStmt.executeQuery()) {
+                record(sqlString, true, Collections.emptyList(), Collections.emptyList());
+                resultSet.next();
+                final long min = resultSet.getLong(1);
+                if (resultSet.wasNull()) {
+                    return null;
+                }
+                return new long[]{min, resultSet.getLong(2)};
+            }
         } catch (SQLException e) {
             throw new SystemException(e);
         }
+    }
 
+    /**
+     * Liest alle Zeilen, deren Schlüssel zwischen {@code from} (einschließlich) und {@code to} liegt.
+     * @param toInclusive true, wenn {@code to} eingeschlossen ist
+     * @param ordered true, wenn nach dem Schlüssel sortiert werden soll
+     */
+    DataSet getRange(String tableName, Collection<String> searchedColumns, String keyColumn, long from, long to,
+                     boolean toInclusive, boolean ordered) {
+        String sqlString = String.format("select %s from %s where %s >= ? and %s %s ?%s",
+                StringUtils.concatStrings(searchedColumns, ", "), tableName, keyColumn, keyColumn,
+                toInclusive ? "<=" : "<", ordered ? " order by " + keyColumn : "");
+        LOGGER.debug("Wird ausgeführt: " + sqlString);
+        try(Connection connection = getConnection();
+            PreparedStatement sqlStmt = connection.prepareStatement(sqlString)) {
+            sqlStmt.setLong(1, from);
+            sqlStmt.setLong(2, to);
+            sqlStmt.setFetchSize(FETCH_SIZE);
+            final DataSet result = executeStatement(searchedColumns, sqlStmt);
+            final Integer keyType = metaDataCache.getSqlType(tableName, keyColumn);
+            record(sqlString, true, Arrays.asList(from, to), Arrays.asList(keyType, keyType));
+            return result;
+        } catch (SQLException e) {
+            throw new SystemException(e);
+        }
     }
 
     private DataSet executeStatement(Collection<String> searchedColumns, PreparedStatement sqlStmt) throws SQLException {
         final ResultSet resultSet = sqlStmt.executeQuery();
         DataSet result = new DataSet();
         while (resultSet.next()) {
-            final Row resultRow = new Row();
-            for (String colName : searchedColumns) {
-                resultRow.addColum(colName, resultSet.getObject(colName));
+            result.addRow(readRow(resultSet, searchedColumns));
+        }
+
+        return result;
+    }
+
+    /**
+     * Liest alle Zeilen der Tabelle über einen Cursor und übergibt sie einzeln an den Consumer, ohne sie zu sammeln.
+     */
+    void streamAll(String tableName, Collection<String> searchedColumns, Consumer<Row> rowConsumer) {
+        String sqlString = String.format("select %s from %s ",
+                StringUtils.concatStrings(searchedColumns, ", "), tableName);
+        LOGGER.debug("Wird ausgeführt: " + sqlString);
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement sqlStmt = connection.prepareStatement(sqlString,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                sqlStmt.setFetchSize(getStreamingFetchSize(connection));
+                try (ResultSet resultSet = sqlStmt.executeQuery()) {
+                    record(sqlString, true, Collections.emptyList(), Collections.emptyList());
+                    while (resultSet.next()) {
+                        rowConsumer.accept(readRow(resultSet, searchedColumns));
+                    }
+                }
+                connection.commit();
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new SystemException(e);
+        }
+    }
+
+    /**
+     * MySQL Connector/J liest bei einer positiven Fetch Size ohne {@code useCursorFetch=true} das ganze Ergebnis in den
+     * Speicher, nur mit {@link Integer#MIN_VALUE} werden die Zeilen einzeln übertragen.
+     */
+    private static int getStreamingFetchSize(Connection connection) throws SQLException {
+        final String productName = connection.getMetaData().getDatabaseProductName();
+        return productName != null && productName.toLowerCase(Locale.ROOT).contains("mysql")
+                ? Integer.MIN_VALUE : FETCH_SIZE;
+    }
+
+    /**
+     * Liest zu jeder Zeile den Schlüssel und einen 64 Bit Hash über die übergebenen Spalten, sortiert nach dem
+     * Schlüssel. Bei PostgreSQL, MySQL und MariaDB wird der Hash in der Datenbank berechnet, sonst beim Lesen der
+     * Zeilen.
+     */
+    void streamFingerprints(String tableName, String keyColumn, Collection<String> columns,
+                            FingerprintConsumer fingerprintConsumer) {
+        try (Connection connection = getConnection()) {
+            final String hashExpression = createRowHashExpression(connection, columns);
+            final String sqlString = String.format("select %s, %s from %s order by %s", keyColumn,
+                    hashExpression == null ? StringUtils.concatStrings(columns, ", ") : hashExpression,
+                    tableName, keyColumn);
+            LOGGER.debug("Wird ausgeführt: " + sqlString);
+            connection.setAutoCommit(false);
+            try (PreparedStatement sqlStmt = connection.prepareStatement(sqlString,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                sqlStmt.setFetchSize(getStreamingFetchSize(connection));
+                try (ResultSet resultSet = sqlStmt.executeQuery()) {
+                    record(sqlString, true, Collections.emptyList(), Collections.emptyList());
+                    while (resultSet.next()) {
+                        final long hash = hashExpression == null ? hashColumns(resultSet, columns.size())
+                                : Long.parseUnsignedLong(resultSet.getString(2).substring(0, 16), 16);
+                        fingerprintConsumer.accept((Number) resultSet.getObject(1), hash);
+                    }
+                }
+                connection.commit();
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
             }
-            result.addRow(resultRow);
+        } catch (SQLException e) {
+            throw new SystemException(e);
+        }
+    }
+
+    /**
+     * Die Werte werden eindeutig kodiert: PostgreSQL setzt Werte mit Trennzeichen in Anführungszeichen, für MySQL und
+     * MariaDB wird jedem Wert seine Länge vorangestellt und null als 'n' ohne Länge kodiert.
+     * @return Ausdruck für den Hash der Zeile oder {@code null}, wenn die Datenbank nicht unterstützt wird
+     */
+    private static String createRowHashExpression(Connection connection, Collection<String> columns)
+            throws SQLException {
+        final String productName = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (productName.contains("postgres")) {
+            return "md5(cast(row(" + StringUtils.concatStrings(columns, ", ") + ") as text))";
+        }
+        if (productName.contains("mysql") || productName.contains("mariadb")) {
+            return "md5(concat(" + StringUtils.concatStrings(columns.stream()
+                    .map(column -> String.format(
+                            "coalesce(concat(char_length(cast(%1$s as char)), ':', cast(%1$s as char)), 'n')", column))
+                    .collect(Collectors.toList()), ", ") + "))";
         }
+        return null;
+    }
 
+    /**
+     * FNV-1a Hash über die Textdarstellung der Spalten ab Index 2. Jedem Wert wird seine Länge vorangestellt, null
+     * wird von einem leeren Text unterschieden.
+     */
+    private static long hashColumns(ResultSet resultSet, int columnCount) throws SQLException {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 2; i < columnCount + 2; i++) {
+            final Object value = resultSet.getObject(i);
+            final String text = value instanceof byte[] ? Arrays.toString((byte[]) value) : String.valueOf(value);
+            hash = (hash ^ (value == null ? 0 : 1)) * 0x100000001b3L;
+            hash = (hash ^ text.length()) * 0x100000001b3L;
+            for (int j = 0; j < text.length(); j++) {
+                hash = (hash ^ text.charAt(j)) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Liest die Zeilen mit den übergebenen Schlüsseln, je Statement höchstens {@link #KEYS_PER_QUERY} Schlüssel.
+     * Jedes Statement sortiert nach dem Schlüssel, aufsteigend sortierte Schlüssel liefern die Zeilen also in
+     * Schlüsselreihenfolge.
+     */
+    DataSet getRowsByKeys(String tableName, Collection<String> searchedColumns, String keyColumn, long[] keys) {
+        final DataSet result = new DataSet();
+        try (Connection connection = getConnection()) {
+            for (int from = 0; from < keys.length; from += KEYS_PER_QUERY) {
+                final int count = Math.min(KEYS_PER_QUERY, keys.length - from);
+                final String sqlString = String.format("select %s from %s where %s in (%s) order by %s",
+                        StringUtils.concatStrings(searchedColumns, ", "), tableName, keyColumn,
+                        StringUtils.concatStrings(Collections.nCopies(count, "?"), ", "), keyColumn);
+                LOGGER.debug("Wird ausgeführt: " + sqlString);
+                try (PreparedStatement sqlStmt = connection.prepareStatement(sqlString)) {
+                    final List<Long> parameters = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        sqlStmt.setLong(i + 1, keys[from + i]);
+                        parameters.add(keys[from + i]);
+                    }
+                    executeStatement(searchedColumns, sqlStmt).stream().forEach(result::addRow);
+                    record(sqlString, true, parameters, Collections.nCopies(count,
+                            metaDataCache.getSqlType(tableName, keyColumn)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new SystemException(e);
+        }
         return result;
     }
 
+    /**
+     * Empfänger für Schlüssel und Hash einer Zeile, siehe {@link #streamFingerprints}
+     */
+    @FunctionalInterface
+    interface FingerprintConsumer {
+        void accept(Number key, long hash);
+    }
+
+    private static Row readRow(ResultSet resultSet, Collection<String> searchedColumns) throws SQLException {
+        final Row resultRow = new Row();
+        for (String colName : searchedColumns) {
+            resultRow.addColum(colName, resultSet.getObject(colName));
+        }
+        return resultRow;
+    }
+
     void executeInsert(String tableName, DataSet dataSet) {
-        try (Connection connection = dataSource.getConnection()) {
+        try (Connection connection = getConnection()) {
             connection.setAutoCommit(false);
             final List<Row> rows = dataSet.stream().collect(Collectors.toList());
             for (Row row : rows) {
                 final ArrayList<Map.Entry<String, Object>> columns = new ArrayList<>(row.getColumns().entrySet());
-                final String sql = String.format("insert into %s(%s) values(%s)",
-                        tableName,
-                        StringUtils.concatStrings(columns.stream().map(Map.Entry::getKey).collect(Collectors.toList()), ", "),
-                        StringUtils.concatStrings(Collections.nCopies(columns.size(), "?"), ", "));
+                final String sql = createInsertSql(tableName,
+                        columns.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
                 try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    setParameters(stmt, columns);
+                    setParameters(stmt, tableName, columns);
                     stmt.executeUpdate();
                     connection.commit();
+                    recordColumnValues(sql, false, tableName, columns);
                 } catch (Exception e) {
                     connection.rollback();
                     throw e;
@@ -102,10 +409,159 @@ class JdbcHelper {
         }
     }
 
-    private void setParameters(PreparedStatement sqlStmt, ArrayList<Map.Entry<String, Object>> columns)
+    /**
+     * Fügt die Zeilen per JDBC Batch über die übergebene Verbindung ein. Aufeinanderfolgende Zeilen mit den gleichen
+     * Spalten verwenden dasselbe Statement. Commit und Rollback sind Aufgabe des Aufrufers, der die Statements nach
+     * dem Commit mit {@link #recordBatchInsert} aufzeichnet.
+     */
+    void executeBatchInsert(Connection connection, String tableName, List<Row> rows) throws SQLException {
+        forEachColumnGroup(tableName, rows, (sql, columns, group) -> {
+            final Integer[] sqlTypes = getSqlTypes(tableName, columns);
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                for (Row row : group) {
+                    for (int i = 0; i < columns.size(); i++) {
+                        setParameter(stmt, i + 1, sqlTypes[i], row.getColumnValue(columns.get(i)));
+                    }
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Zeichnet die mit {@link #executeBatchInsert} eingefügten Zeilen auf, nachdem sie committet wurden.
+     */
+    void recordBatchInsert(String tableName, List<Row> rows) {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            forEachColumnGroup(tableName, rows, (sql, columns, group) -> {
+                final List<Integer> sqlTypes = Arrays.asList(getSqlTypes(tableName, columns));
+                for (Row row : group) {
+                    record(sql, false, columns.stream().map(row::getColumnValue).collect(Collectors.toList()),
+                            sqlTypes);
+                }
+            });
+        } catch (SQLException e) {
+            throw new SystemException(e);
+        }
+    }
+
+    /**
+     * Teilt die Zeilen in Folgen aufeinanderfolgender Zeilen mit den gleichen Spalten.
+     */
+    private static void forEachColumnGroup(String tableName, List<Row> rows, ColumnGroupConsumer groupConsumer)
             throws SQLException {
+        int groupStart = 0;
+        while (groupStart < rows.size()) {
+            final Set<String> columnSet = rows.get(groupStart).getColumns().keySet();
+            int groupEnd = groupStart + 1;
+            while (groupEnd < rows.size() && rows.get(groupEnd).getColumns().keySet().equals(columnSet)) {
+                groupEnd++;
+            }
+            final List<String> columns = new ArrayList<>(columnSet);
+            groupConsumer.accept(createInsertSql(tableName, columns), columns, rows.subList(groupStart, groupEnd));
+            groupStart = groupEnd;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ColumnGroupConsumer {
+        void accept(String sql, List<String> columns, List<Row> group) throws SQLException;
+    }
+
+    /**
+     * Liefert eine neue Verbindung oder, während einer Transaktion, deren Verbindung. Commit, Rollback und Schließen
+     * werden dann ignoriert, damit die Operation an der Transaktion teilnimmt.
+     */
+    Connection getConnection() throws SQLException {
+        final Connection connection = transactionConnection;
+        return connection != null ? TransactionBoundConnection.wrap(connection) : dataSource.getConnection();
+    }
+
+    private static String createInsertSql(String tableName, List<String> columns) {
+        return String.format("insert into %s(%s) values(%s)",
+                tableName,
+                StringUtils.concatStrings(columns, ", "),
+                StringUtils.concatStrings(Collections.nCopies(columns.size(), "?"), ", "));
+    }
+
+    private void setParameters(PreparedStatement sqlStmt, String tableName,
+                               ArrayList<Map.Entry<String, Object>> columns) throws SQLException {
         for (int i = 0; i < columns.size(); i++) {
-            sqlStmt.setObject(i+1, columns.get(i).getValue());
+            final Map.Entry<String, Object> column = columns.get(i);
+            setParameter(sqlStmt, i + 1, metaDataCache.getSqlType(tableName, column.getKey()), column.getValue());
+        }
+    }
+
+    private void recordColumnValues(String sql, boolean query, String tableName,
+                                    ArrayList<Map.Entry<String, Object>> columns) {
+        if (recorder != null) {
+            record(sql, query, columns.stream().map(Map.Entry::getValue).collect(Collectors.toList()),
+                    columns.stream().map(column -> metaDataCache.getSqlType(tableName, column.getKey()))
+                            .collect(Collectors.toList()));
+        }
+    }
+
+    private void record(String sql, boolean query, List<?> parameters, List<Integer> sqlTypes) {
+        final StatementRecorder currentRecorder = recorder;
+        if (currentRecorder != null) {
+            currentRecorder.record(sql, query, parameters, sqlTypes);
+        }
+    }
+
+    private Integer[] getSqlTypes(String tableName, List<String> columns) {
+        final Integer[] sqlTypes = new Integer[columns.size()];
+        for (int i = 0; i < sqlTypes.length; i++) {
+            sqlTypes[i] = metaDataCache.getSqlType(tableName, columns.get(i));
+        }
+        return sqlTypes;
+    }
+
+    /**
+     * Bindet den Wert mit dem zum Java Typ passenden Setter. {@code null} wird mit dem SQL Typ der Spalte gebunden,
+     * damit der Treiber den Typ nicht selbst ermitteln muss.
+     */
+    static void setParameter(PreparedStatement sqlStmt, int index, Integer sqlType, Object value)
+            throws SQLException {
+        if (value == null) {
+            if (sqlType != null) {
+                sqlStmt.setNull(index, sqlType);
+            } else {
+                sqlStmt.setObject(index, null);
+            }
+        } else if (value instanceof String) {
+            sqlStmt.setString(index, (String) value);
+        } else if (value instanceof Integer) {
+            sqlStmt.setInt(index, (Integer) value);
+        } else if (value instanceof Long) {
+            sqlStmt.setLong(index, (Long) value);
+        } else if (value instanceof Short) {
+            sqlStmt.setShort(index, (Short) value);
+        } else if (value instanceof Byte) {
+            sqlStmt.setByte(index, (Byte) value);
+        } else if (value instanceof Boolean) {
+            sqlStmt.setBoolean(index, (Boolean) value);
+        } else if (value instanceof Double) {
+            sqlStmt.setDouble(index, (Double) value);
+        } else if (value instanceof Float) {
+            sqlStmt.setFloat(index, (Float) value);
+        } else if (value instanceof BigDecimal) {
+            sqlStmt.setBigDecimal(index, (BigDecimal) value);
+        } else if (value instanceof Timestamp) {
+            sqlStmt.setTimestamp(index, (Timestamp) value);
+        } else if (value instanceof Date) {
+            sqlStmt.setDate(index, (Date) value);
+        } else if (value instanceof Time) {
+            sqlStmt.setTime(index, (Time) value);
+        } else if (value instanceof byte[]) {
+            sqlStmt.setBytes(index, (byte[]) value);
+        } else if (sqlType != null) {
+            sqlStmt.setObject(index, value, sqlType);
+        } else {
+            sqlStmt.setObject(index, value);
         }
     }
 
@@ -117,7 +573,7 @@ class JdbcHelper {
 
     private void executeUpdate(List<String> sqlStatements) {
 
-        try (Connection connection = dataSource.getConnection()) {
+        try (Connection connection = getConnection()) {
 
             try ( Statement stmt = connection.createStatement()) {
                 connection.setAutoCommit(false);
@@ -125,6 +581,8 @@ class JdbcHelper {
                     stmt.executeUpdate(sqlStatement);
                 }
                 connection.commit();
+                sqlStatements.forEach(sqlStatement ->
+                        record(sqlStatement, false, Collections.emptyList(), Collections.emptyList()));
             }
             catch (Exception e) {
                 connection.rollback();
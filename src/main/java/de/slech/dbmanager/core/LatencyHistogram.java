@@ -0,0 +1,75 @@
+package de.slech.dbmanager.core;
+
+/**
+ * Histogramm für Latenzen in Nanosekunden mit fester Größe. Jede Zweierpotenz wird in {@link #SUB_BUCKETS} gleich
+ * große Bereiche unterteilt, die ermittelten Perzentile sind daher auf etwa 3% genau. Nicht threadsicher, jeder
+ * Thread füllt ein eigenes Histogramm, die am Ende mit {@link #add(LatencyHistogram)} zusammengeführt werden.
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    private long totalCount;
+    private long maxValue;
+
+    void record(long nanos) {
+        final long value = Math.max(0, nanos);
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        maxValue = Math.max(maxValue, value);
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @param percentile Perzentil zwischen 0 und 100
+     * @return obere Grenze des Bereichs, in den das Perzentil fällt, höchstens der größte gemessene Wert
+     */
+    long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            if (count >= rank) {
+                return Math.min(maxValue, bucketUpperBound(i));
+            }
+        }
+        return maxValue;
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
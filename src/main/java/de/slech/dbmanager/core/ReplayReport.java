@@ -0,0 +1,65 @@
+package de.slech.dbmanager.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of a {@link StatementReplayer} run: throughput and latency percentiles. A latency is measured per
+ * execution, which is a whole JDBC batch for batched statements.
+ */
+public class ReplayReport {
+
+    private final long statementCount;
+    private final long failedStatementCount;
+    private final long elapsedMillis;
+    private final LatencyHistogram latencies;
+
+    ReplayReport(long statementCount, long failedStatementCount, long elapsedMillis, LatencyHistogram latencies) {
+        this.statementCount = statementCount;
+        this.failedStatementCount = failedStatementCount;
+        this.elapsedMillis = elapsedMillis;
+        this.latencies = latencies;
+    }
+
+    public long getStatementCount() {
+        return statementCount;
+    }
+
+    public long getFailedStatementCount() {
+        return failedStatementCount;
+    }
+
+    public long getExecutionCount() {
+        return latencies.getTotalCount();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return replayed statements per second
+     */
+    public double getStatementsPerSecond() {
+        return elapsedMillis == 0 ? statementCount : statementCount * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * @param percentile percentile between 0 and 100, e.g. 99.9
+     * @return latency of an execution in microseconds
+     */
+    public long getLatencyMicros(double percentile) {
+        return TimeUnit.NANOSECONDS.toMicros(latencies.getValueAtPercentile(percentile));
+    }
+
+    public long getMaxLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(latencies.getMaxValue());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d statements (%d failed) in %d executions, %d ms, %.1f statements/s, "
+                        + "latency p50: %d us, p90: %d us, p99: %d us, max: %d us",
+                statementCount, failedStatementCount, getExecutionCount(), elapsedMillis, getStatementsPerSecond(),
+                getLatencyMicros(50), getLatencyMicros(90), getLatencyMicros(99), getMaxLatencyMicros());
+    }
+}
@@ -0,0 +1,91 @@
+package de.slech.dbmanager.core;
+
+import de.slech.dbmanager.exeption.SystemException;
+import de.slech.dbmanager.export.BinaryOutput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schreibt ausgeführte SQL Statements mit ihren Parametern an das Ende einer Logdatei. Aufbau des Logs:
+ * <ul>
+ * <li>{@link #SESSION}: Beginn einer Aufzeichnung, gefolgt von der Version als Byte. Die Nummern der SQL Texte
+ * gelten nur innerhalb einer Aufzeichnung.</li>
+ * <li>{@link #SQL}: Nummer als int und SQL Text, wird vor der ersten Verwendung eines SQL Textes geschrieben</li>
+ * <li>{@link #STATEMENT}: Nanosekunden seit dem vorherigen Statement als long, Nummer des SQL Textes als int,
+ * 1 für eine Query sonst 0 als Byte, Anzahl der Parameter als int und je Parameter der SQL Typ der Spalte aus
+ * {@link java.sql.Types} als int, {@link #UNKNOWN_SQL_TYPE} wenn er unbekannt ist, und der Wert, siehe
+ * {@link BinaryOutput#writeValue}.</li>
+ * </ul>
+ * Die Methoden sind synchronisiert, da Statements aus mehreren Threads aufgezeichnet werden können.
+ */
+class StatementRecorder implements Closeable {
+
+    static final byte SESSION = 3;
+    static final byte SQL = 1;
+    static final byte STATEMENT = 2;
+    static final byte VERSION = 1;
+    static final int UNKNOWN_SQL_TYPE = Integer.MIN_VALUE;
+
+    private final BinaryOutput output;
+    private final Map<String, Integer> sqlIds = new HashMap<>();
+    private long lastStatementNanos;
+    private boolean closed;
+
+    StatementRecorder(Path logFile) {
+        try {
+            output = new BinaryOutput(FileChannel.open(logFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+            output.writeByte(SESSION);
+            output.writeByte(VERSION);
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+        lastStatementNanos = System.nanoTime();
+    }
+
+    /**
+     * @param sqlTypes SQL Typen der Parameter, {@code null} oder leer, wenn sie unbekannt sind
+     */
+    synchronized void record(String sql, boolean query, List<?> parameters, List<Integer> sqlTypes) {
+        if (closed) {
+            return;
+        }
+        try {
+            Integer sqlId = sqlIds.get(sql);
+            if (sqlId == null) {
+                sqlId = sqlIds.size();
+                sqlIds.put(sql, sqlId);
+                output.writeByte(SQL);
+                output.writeInt(sqlId);
+                output.writeString(sql);
+            }
+            final long now = System.nanoTime();
+            output.writeByte(STATEMENT);
+            output.writeLong(now - lastStatementNanos);
+            output.writeInt(sqlId);
+            output.writeByte((byte) (query ? 1 : 0));
+            output.writeInt(parameters.size());
+            for (int i = 0; i < parameters.size(); i++) {
+                final Integer sqlType = sqlTypes == null || sqlTypes.size() <= i ? null : sqlTypes.get(i);
+                output.writeInt(sqlType == null ? UNKNOWN_SQL_TYPE : sqlType);
+                output.writeValue(parameters.get(i));
+            }
+            lastStatementNanos = now;
+        } catch (IOException e) {
+            throw new SystemException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        output.close();
+    }
+}
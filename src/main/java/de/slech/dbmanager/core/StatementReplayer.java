@@ -0,0 +1,309 @@
+package de.slech.dbmanager.core;
+
+import de.slech.dbmanager.exeption.SystemException;
+import de.slech.dbmanager.export.BinaryInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a statement log written by {@link DatabaseManager#startRecording(Path)} against a {@link DataSource}.
+ * The log is streamed, consecutive executions of the same update statement are combined into JDBC batches, and the
+ * batches are executed on several connections in parallel. Because of the parallel execution the order of statements
+ * is not preserved across connections, so the replay is meant as load and not as an exact copy of the recorded
+ * session.
+ * <pre>
+ * ReplayReport report = new StatementReplayer(dataSource)
+ *         .connections(8)
+ *         .batchSize(100)
+ *         .timeScale(0.5)
+ *         .replay(Paths.get("statements.log"));
+ * </pre>
+ */
+public class StatementReplayer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementReplayer.class);
+    private static final ReplayBatch END_OF_LOG = new ReplayBatch(null, false);
+
+    private final DataSource dataSource;
+    private int connections = 4;
+    private int batchSize = 100;
+    private double timeScale;
+
+    public StatementReplayer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @param connections number of connections executing statements in parallel, default 4
+     * @return this replayer
+     */
+    public StatementReplayer connections(int connections) {
+        this.connections = connections;
+        return this;
+    }
+
+    /**
+     * @param batchSize maximal number of statements combined into one JDBC batch, default 100
+     * @return this replayer
+     */
+    public StatementReplayer batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Scales the recorded time between two statements. 1 replays with the recorded timing, 0.5 twice as fast and
+     * 0 (the default) as fast as possible.
+     * @param timeScale factor for the recorded time between statements
+     * @return this replayer
+     */
+    public StatementReplayer timeScale(double timeScale) {
+        this.timeScale = timeScale;
+        return this;
+    }
+
+    /**
+     * Replays the statements of the log.
+     * @param logFile statement log
+     * @return throughput and latencies of the replay
+     */
+    public ReplayReport replay(Path logFile) {
+        if (connections < 1 || batchSize < 1 || timeScale < 0) {
+            throw new IllegalArgumentException("connections and batchSize must be greater than 0, "
+                    + "timeScale must not be negative.");
+        }
+        final BlockingQueue<ReplayBatch> queue = new ArrayBlockingQueue<>(connections * 2);
+        final AtomicLong statementCount = new AtomicLong();
+        final AtomicLong failedStatementCount = new AtomicLong();
+        final ExecutorService executor = Executors.newFixedThreadPool(connections);
+        final List<Future<LatencyHistogram>> workers = new ArrayList<>();
+        final long start = System.nanoTime();
+        try {
+            for (int i = 0; i < connections; i++) {
+                workers.add(executor.submit(() -> executeBatches(queue, statementCount, failedStatementCount)));
+            }
+            readLog(logFile, start, batch -> put(queue, batch, workers));
+            for (int i = 0; i < connections; i++) {
+                put(queue, END_OF_LOG, workers);
+            }
+            final LatencyHistogram latencies = new LatencyHistogram();
+            for (Future<LatencyHistogram> worker : workers) {
+                latencies.add(worker.get());
+            }
+            final ReplayReport report = new ReplayReport(statementCount.get(), failedStatementCount.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), latencies);
+            LOGGER.info("Replay {}: {}", logFile, report);
+            return report;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new SystemException((Exception) e.getCause());
+        } catch (IOException e) {
+            throw new SystemException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void readLog(Path logFile, long start, BatchConsumer batchConsumer)
+            throws IOException, InterruptedException, ExecutionException {
+        final Map<Integer, String> sqlTexts = new HashMap<>();
+        long recordedNanos = 0;
+        ReplayBatch batch = null;
+        try (BinaryInput input = new BinaryInput(FileChannel.open(logFile, StandardOpenOption.READ))) {
+            while (!input.isAtEnd()) {
+                final byte entryType = input.readByte();
+                if (entryType == StatementRecorder.SESSION) {
+                    final byte version = input.readByte();
+                    if (version != StatementRecorder.VERSION) {
+                        throw new IOException("Unsupported log version " + version);
+                    }
+                    sqlTexts.clear();
+                } else if (entryType == StatementRecorder.SQL) {
+                    sqlTexts.put(input.readInt(), input.readString());
+                } else if (entryType == StatementRecorder.STATEMENT) {
+                    recordedNanos += input.readLong();
+                    final String sql = sqlTexts.get(input.readInt());
+                    final boolean query = input.readByte() != 0;
+                    final Object[] parameters = new Object[input.readInt()];
+                    final Integer[] sqlTypes = new Integer[parameters.length];
+                    for (int i = 0; i < parameters.length; i++) {
+                        final int sqlType = input.readInt();
+                        sqlTypes[i] = sqlType == StatementRecorder.UNKNOWN_SQL_TYPE ? null : sqlType;
+                        parameters[i] = input.readValue();
+                    }
+                    if (batch != null && !batch.accepts(sql, query, batchSize)) {
+                        batchConsumer.accept(batch);
+                        batch = null;
+                    }
+                    final long dueNanos = start + (long) (recordedNanos * timeScale);
+                    if (timeScale > 0 && dueNanos - System.nanoTime() > 0) {
+                        if (batch != null) {
+                            batchConsumer.accept(batch);
+                            batch = null;
+                        }
+                        waitUntil(dueNanos);
+                    }
+                    if (batch == null) {
+                        batch = new ReplayBatch(sql, query);
+                    }
+                    batch.parameters.add(parameters);
+                    batch.sqlTypes.add(sqlTypes);
+                } else {
+                    throw new IOException("Unknown log entry " + entryType);
+                }
+            }
+        }
+        if (batch != null) {
+            batchConsumer.accept(batch);
+        }
+    }
+
+    private static void waitUntil(long nanoTime) {
+        long remaining = nanoTime - System.nanoTime();
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = nanoTime - System.nanoTime();
+        }
+    }
+
+    private static void put(BlockingQueue<ReplayBatch> queue, ReplayBatch batch, List<Future<LatencyHistogram>> workers)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            for (Future<LatencyHistogram> worker : workers) {
+                if (worker.isDone()) {
+                    worker.get();
+                }
+            }
+        }
+    }
+
+    private LatencyHistogram executeBatches(BlockingQueue<ReplayBatch> queue, AtomicLong statementCount,
+                                            AtomicLong failedStatementCount) throws SQLException, InterruptedException {
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final Map<String, PreparedStatement> statements = new HashMap<>();
+        final Set<String> unpreparableSql = new HashSet<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                ReplayBatch batch = queue.take();
+                while (batch != END_OF_LOG) {
+                    if (unpreparableSql.contains(batch.sql)) {
+                        failedStatementCount.addAndGet(batch.parameters.size());
+                    } else {
+                        final long executionStart = System.nanoTime();
+                        PreparedStatement stmt = statements.get(batch.sql);
+                        try {
+                            if (stmt == null) {
+                                stmt = connection.prepareStatement(batch.sql);
+                                statements.put(batch.sql, stmt);
+                            }
+                            execute(stmt, batch);
+                            connection.commit();
+                        } catch (SQLException e) {
+                            LOGGER.debug("Fehler bei Ausführung von {}", batch.sql, e);
+                            if (stmt == null) {
+                                unpreparableSql.add(batch.sql);
+                            }
+                            connection.rollback();
+                            failedStatementCount.addAndGet(batch.parameters.size());
+                        }
+                        latencies.record(System.nanoTime() - executionStart);
+                    }
+                    statementCount.addAndGet(batch.parameters.size());
+                    batch = queue.take();
+                }
+            } finally {
+                for (PreparedStatement stmt : statements.values()) {
+                    stmt.close();
+                }
+            }
+        }
+        return latencies;
+    }
+
+    private static void execute(PreparedStatement stmt, ReplayBatch batch) throws SQLException {
+        if (batch.query) {
+            bind(stmt, batch.parameters.get(0), batch.sqlTypes.get(0));
+            try (ResultSet resultSet = stmt.executeQuery()) {
+                while (resultSet.next()) {
+                    // die Zeilen werden nur gelesen, wie es der aufgezeichnete Aufrufer getan hat
+                }
+            }
+        } else if (batch.parameters.size() == 1) {
+            bind(stmt, batch.parameters.get(0), batch.sqlTypes.get(0));
+            stmt.executeUpdate();
+        } else {
+            for (int i = 0; i < batch.parameters.size(); i++) {
+                bind(stmt, batch.parameters.get(i), batch.sqlTypes.get(i));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Bindet die Parameter mit den aufgezeichneten SQL Typen, null also mit {@code setNull} und dem Typ der Spalte.
+     */
+    private static void bind(PreparedStatement stmt, Object[] parameters, Integer[] sqlTypes) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            JdbcHelper.setParameter(stmt, i + 1, sqlTypes[i], parameters[i]);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchConsumer {
+        void accept(ReplayBatch batch) throws InterruptedException, ExecutionException;
+    }
+
+    /**
+     * Aufeinanderfolgende Ausführungen desselben Statements, Queries werden nicht zusammengefasst.
+     */
+    private static class ReplayBatch {
+        private final String sql;
+        private final boolean query;
+        private final List<Object[]> parameters = new ArrayList<>();
+        private final List<Integer[]> sqlTypes = new ArrayList<>();
+
+        ReplayBatch(String sql, boolean query) {
+            this.sql = sql;
+            this.query = query;
+        }
+
+        boolean accepts(String otherSql, boolean otherQuery, int batchSize) {
+            return !query && !otherQuery && sql.equals(otherSql) && parameters.size() < batchSize;
+        }
+    }
+}
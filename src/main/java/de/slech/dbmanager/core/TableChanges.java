@@ -0,0 +1,53 @@
+package de.slech.dbmanager.core;
+
+import de.slech.dbmanager.data.DataSet;
+
+/**
+ * Rows of a table which were inserted, updated or deleted since {@link DatabaseManager#captureChanges}. Inserted and
+ * updated rows contain all columns of the table manager interface with their current values, deleted rows contain
+ * only the key column. The key has the type the JDBC driver returns for the key column, as in the inserted and updated
+ * rows, e.g. Integer for an INTEGER column. The rows of each DataSet are sorted by the key.
+ */
+public class TableChanges {
+
+    private final String tableName;
+    private final DataSet inserted;
+    private final DataSet updated;
+    private final DataSet deleted;
+
+    TableChanges(String tableName, DataSet inserted, DataSet updated, DataSet deleted) {
+        this.tableName = tableName;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.deleted = deleted;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public DataSet getInserted() {
+        return inserted;
+    }
+
+    public DataSet getUpdated() {
+        return updated;
+    }
+
+    public DataSet getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * @return true, if any row was inserted, updated or deleted
+     */
+    public boolean hasChanges() {
+        return !inserted.isEmpty() || !updated.isEmpty() || !deleted.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Table %s: inserted: %d, updated: %d, deleted: %d", tableName,
+                inserted.getRowCount(), updated.getRowCount(), deleted.getRowCount());
+    }
+}
@@ -0,0 +1,153 @@
+package de.slech.dbmanager.core;
+
+import de.slech.dbmanager.data.DataSet;
+import de.slech.dbmanager.data.Row;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Kompakter Abdruck einer Tabelle: die Schlüssel aller Zeilen aufsteigend sortiert und zu jedem Schlüssel ein 64 Bit
+ * Hash über die Spalten der Zeile, also 16 Byte je Zeile. Beim Vergleich mit dem aktuellen Stand der Tabelle werden
+ * nur die Schlüssel der geänderten Zeilen gesammelt und deren Zeilen anschließend gelesen.
+ */
+class TableFingerprint {
+
+    private final String tableName;
+    private final String keyColumn;
+    private final Collection<String> columns;
+    private final LongList keys = new LongList();
+    private final LongList hashes = new LongList();
+    private Class<?> keyType = Long.class;
+
+    private TableFingerprint(String tableName, String keyColumn, Collection<String> columns) {
+        this.tableName = tableName;
+        this.keyColumn = keyColumn;
+        this.columns = columns;
+    }
+
+    static TableFingerprint read(JdbcHelper jdbcHelper, String tableName, String keyColumn,
+                                 Collection<String> columns) {
+        final TableFingerprint fingerprint = new TableFingerprint(tableName, keyColumn, columns);
+        jdbcHelper.streamFingerprints(tableName, keyColumn, columns, (key, hash) -> {
+            final int size = fingerprint.keys.size();
+            fingerprint.checkAscending(size > 0 && key.longValue() <= fingerprint.keys.get(size - 1));
+            fingerprint.keyType = key.getClass();
+            fingerprint.keys.add(key.longValue());
+            fingerprint.hashes.add(hash);
+        });
+        return fingerprint;
+    }
+
+    /**
+     * Vergleicht den Abdruck in einem Durchlauf mit dem aktuellen Stand der Tabelle, der ebenfalls nach dem
+     * Schlüssel sortiert gelesen wird.
+     */
+    TableChanges getChanges(JdbcHelper jdbcHelper) {
+        final ChangeCollector collector = new ChangeCollector();
+        jdbcHelper.streamFingerprints(tableName, keyColumn, columns, collector);
+        collector.finish();
+        final DataSet deleted = new DataSet();
+        for (long key : collector.deletedKeys.toArray()) {
+            deleted.addRow(new Row(1).addColum(keyColumn, toKeyType(key)));
+        }
+        return new TableChanges(tableName,
+                jdbcHelper.getRowsByKeys(tableName, columns, keyColumn, collector.insertedKeys.toArray()),
+                jdbcHelper.getRowsByKeys(tableName, columns, keyColumn, collector.updatedKeys.toArray()),
+                deleted);
+    }
+
+    /**
+     * Liefert den Schlüssel im Typ, den der Treiber für die Schlüsselspalte liefert, wie in den gelesenen Zeilen.
+     */
+    private Object toKeyType(long key) {
+        if (keyType == Integer.class) {
+            return (int) key;
+        }
+        if (keyType == Short.class) {
+            return (short) key;
+        }
+        if (keyType == Byte.class) {
+            return (byte) key;
+        }
+        if (keyType == BigDecimal.class) {
+            return BigDecimal.valueOf(key);
+        }
+        if (keyType == BigInteger.class) {
+            return BigInteger.valueOf(key);
+        }
+        return key;
+    }
+
+    private void checkAscending(boolean notAscending) {
+        if (notAscending) {
+            throw new IllegalStateException(String.format(
+                    "The values of key column %s of table %s are not unique.", keyColumn, tableName));
+        }
+    }
+
+    /**
+     * Ordnet die aktuellen Zeilen den Zeilen des Abdrucks zu und sammelt die Schlüssel der geänderten Zeilen.
+     */
+    private class ChangeCollector implements JdbcHelper.FingerprintConsumer {
+        private final LongList insertedKeys = new LongList();
+        private final LongList updatedKeys = new LongList();
+        private final LongList deletedKeys = new LongList();
+        private int position;
+        private long rowCount;
+        private long lastKey;
+
+        @Override
+        public void accept(Number keyValue, long hash) {
+            final long key = keyValue.longValue();
+            checkAscending(rowCount++ > 0 && key <= lastKey);
+            lastKey = key;
+            while (position < keys.size() && keys.get(position) < key) {
+                deletedKeys.add(keys.get(position++));
+            }
+            if (position < keys.size() && keys.get(position) == key) {
+                if (hashes.get(position) != hash) {
+                    updatedKeys.add(key);
+                }
+                position++;
+            } else {
+                insertedKeys.add(key);
+            }
+        }
+
+        void finish() {
+            while (position < keys.size()) {
+                deletedKeys.add(keys.get(position++));
+            }
+        }
+    }
+
+    /**
+     * Wachsende Liste von long Werten ohne Boxing
+     */
+    private static class LongList {
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package de.slech.dbmanager.core;
+
+import de.slech.dbmanager.exeption.SystemException;
+import de.slech.dbmanager.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Liest die SQL Typen der Spalten einer Tabelle einmalig aus den {@link DatabaseMetaData} und hält sie vor.
+ * Spaltennamen werden ohne Beachtung der Groß- und Kleinschreibung verglichen. Die Metadaten werden über
+ * {@link JdbcHelper#getConnection()} gelesen, während einer Transaktion also über deren Verbindung. Nicht gefundene
+ * Tabellen werden nicht vorgehalten, damit eine später angelegte Tabelle gefunden wird.
+ */
+class TableMetaDataCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TableMetaDataCache.class);
+
+    private final ConnectionSource connectionSource;
+    private final Map<String, Map<String, Integer>> columnTypes = new ConcurrentHashMap<>();
+
+    TableMetaDataCache(ConnectionSource connectionSource) {
+        this.connectionSource = connectionSource;
+    }
+
+    /**
+     * @param tableName Name der Tabelle
+     * @param columnName Name der Spalte
+     * @return SQL Typ der Spalte aus {@link java.sql.Types} oder {@code null}, wenn die Spalte unbekannt ist
+     */
+    Integer getSqlType(String tableName, String columnName) {
+        return getColumnTypes(tableName).get(normalize(columnName));
+    }
+
+    /**
+     * Prüft, ob die Tabelle existiert und alle übergebenen Spalten enthält.
+     * @param tableName Name der Tabelle
+     * @param columnNames Namen der Spalten
+     * @throws IllegalArgumentException wenn die Tabelle oder eine der Spalten nicht existiert
+     */
+    void validateColumns(String tableName, Collection<String> columnNames) {
+        final Map<String, Integer> types = getColumnTypes(tableName);
+        if (types.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Table %s not found.", tableName));
+        }
+        final List<String> unknownColumns = columnNames.stream()
+                .filter(columnName -> !types.containsKey(normalize(columnName)))
+                .collect(Collectors.toList());
+        if (!unknownColumns.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Table %s has no columns %s.",
+                    tableName, StringUtils.concatStrings(unknownColumns, ",")));
+        }
+    }
+
+    /**
+     * Prüft, ob die Java Typen, mit denen die Spalten gesetzt werden, offensichtlich nicht zum SQL Typ der Spalte
+     * passen, z.B. eine Zahl für eine Datumsspalte. Unbekannte Spalten und nicht eingeordnete Typen werden
+     * übergangen.
+     * @param tableName Name der Tabelle
+     * @param javaTypes Java Typ des Werts je Spalte
+     * @throws IllegalArgumentException wenn ein Typ nicht zur Spalte passt
+     */
+    void validateColumnTypes(String tableName, Map<String, Class<?>> javaTypes) {
+        final Map<String, Integer> types = getColumnTypes(tableName);
+        final List<String> mismatches = javaTypes.entrySet().stream()
+                .filter(javaType -> types.containsKey(normalize(javaType.getKey())) && !ValueCategory.of(
+                        javaType.getValue()).canBeBoundTo(ValueCategory.of(types.get(normalize(javaType.getKey())))))
+                .map(javaType -> String.format("column %s (%s) cannot take %s", javaType.getKey(),
+                        sqlTypeName(types.get(normalize(javaType.getKey()))), javaType.getValue().getSimpleName()))
+                .collect(Collectors.toList());
+        if (!mismatches.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Table %s: %s.",
+                    tableName, StringUtils.concatStrings(mismatches, ", ")));
+        }
+    }
+
+    private static String sqlTypeName(int sqlType) {
+        try {
+            return JDBCType.valueOf(sqlType).getName();
+        } catch (IllegalArgumentException e) {
+            return String.valueOf(sqlType);
+        }
+    }
+
+    private Map<String, Integer> getColumnTypes(String tableName) {
+        final Map<String, Integer> types =
+                columnTypes.computeIfAbsent(normalize(tableName), key -> readColumnTypes(tableName));
+        return types == null ? Collections.emptyMap() : types;
+    }
+
+    /**
+     * Ohne Schema wird zuerst im aktuellen Katalog und Schema der Verbindung gesucht, nur wenn die Tabelle dort nicht
+     * existiert, in allen Schemas.
+     */
+    private Map<String, Integer> readColumnTypes(String tableName) {
+        final int dot = tableName.lastIndexOf('.');
+        final String schema = dot < 0 ? null : tableName.substring(0, dot);
+        final String table = tableName.substring(dot + 1);
+        try (Connection connection = connectionSource.getConnection()) {
+            final DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, Integer> types;
+            if (schema != null) {
+                types = readColumnTypesIgnoringCase(metaData, null, schema, true, table);
+            } else {
+                final String currentCatalog = connection.getCatalog();
+                final String currentSchema = getCurrentSchema(connection);
+                types = currentCatalog == null && currentSchema == null ? Collections.emptyMap()
+                        : readColumnTypesIgnoringCase(metaData, currentCatalog, currentSchema, false, table);
+                if (types.isEmpty()) {
+                    types = readColumnTypesIgnoringCase(metaData, null, null, false, table);
+                }
+            }
+            LOGGER.debug("Spaltentypen der Tabelle {}: {}", tableName, types);
+            return types.isEmpty() ? null : Collections.unmodifiableMap(types);
+        } catch (SQLException e) {
+            throw new SystemException(e);
+        }
+    }
+
+    private static String getCurrentSchema(Connection connection) {
+        try {
+            return connection.getSchema();
+        } catch (SQLException | AbstractMethodError e) {
+            LOGGER.debug("Aktuelles Schema nicht ermittelbar", e);
+            return null;
+        }
+    }
+
+    /**
+     * @param ignoreSchemaCase true, wenn das Schema wie der Tabellenname aus dem Namen der Tabelle stammt, false für
+     *                         das exakt geschriebene aktuelle Schema der Verbindung
+     */
+    private static Map<String, Integer> readColumnTypesIgnoringCase(DatabaseMetaData metaData, String catalog,
+                                                                    String schema, boolean ignoreSchemaCase,
+                                                                    String table) throws SQLException {
+        Map<String, Integer> types = readColumnTypes(metaData, catalog, schema, table);
+        if (types.isEmpty()) {
+            types = readColumnTypes(metaData, catalog, ignoreSchemaCase ? toUpperCase(schema) : schema,
+                    table.toUpperCase(Locale.ROOT));
+        }
+        if (types.isEmpty()) {
+            types = readColumnTypes(metaData, catalog, ignoreSchemaCase ? toLowerCase(schema) : schema,
+                    table.toLowerCase(Locale.ROOT));
+        }
+        return types;
+    }
+
+    /**
+     * @throws IllegalArgumentException wenn die Tabelle in mehreren Schemas gefunden wird
+     */
+    private static Map<String, Integer> readColumnTypes(DatabaseMetaData metaData, String catalog, String schema,
+                                                        String table) throws SQLException {
+        final Map<String, Integer> types = new HashMap<>();
+        final Set<String> schemas = new TreeSet<>();
+        final String escape = metaData.getSearchStringEscape();
+        try (ResultSet columns = metaData.getColumns(catalog, escape(schema, escape), escape(table, escape), null)) {
+            while (columns.next()) {
+                types.put(normalize(columns.getString("COLUMN_NAME")), columns.getInt("DATA_TYPE"));
+                schemas.add(columns.getString("TABLE_CAT") + "." + columns.getString("TABLE_SCHEM"));
+            }
+        }
+        if (schemas.size() > 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Table %s exists in several schemas %s, qualify its name with the schema.",
+                    table, StringUtils.concatStrings(schemas, ",")));
+        }
+        return types;
+    }
+
+    private static String escape(String namePattern, String escape) {
+        if (namePattern == null || StringUtils.isBlank(escape)) {
+            return namePattern;
+        }
+        return namePattern.replace("_", escape + "_").replace("%", escape + "%");
+    }
+
+    private static String normalize(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+
+    private static String toUpperCase(String name) {
+        return name == null ? null : name.toUpperCase(Locale.ROOT);
+    }
+
+    private static String toLowerCase(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Grobe Einordnung von Java und SQL Typen, um offensichtlich unpassende Typen zu erkennen. Text kann in jede
+     * Spalte gebunden werden, da Treiber ihn üblicherweise umwandeln.
+     */
+    private enum ValueCategory {
+        NUMBER, BOOLEAN, TEXT, TEMPORAL, BINARY, OTHER;
+
+        static ValueCategory of(Class<?> javaType) {
+            if (javaType == boolean.class || javaType == Boolean.class) {
+                return BOOLEAN;
+            }
+            if (javaType == char.class || javaType == Character.class
+                    || CharSequence.class.isAssignableFrom(javaType)) {
+                return TEXT;
+            }
+            if (javaType.isPrimitive() || Number.class.isAssignableFrom(javaType)) {
+                return NUMBER;
+            }
+            if (java.util.Date.class.isAssignableFrom(javaType) || Temporal.class.isAssignableFrom(javaType)) {
+                return TEMPORAL;
+            }
+            return javaType == byte[].class ? BINARY : OTHER;
+        }
+
+        static ValueCategory of(int sqlType) {
+            switch (sqlType) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                case Types.FLOAT:
+                case Types.REAL:
+                case Types.DOUBLE:
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    return NUMBER;
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    return BOOLEAN;
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.LONGVARCHAR:
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                case Types.LONGNVARCHAR:
+                case Types.CLOB:
+                case Types.NCLOB:
+                    return TEXT;
+                case Types.DATE:
+                case Types.TIME:
+                case Types.TIMESTAMP:
+                case Types.TIME_WITH_TIMEZONE:
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    return TEMPORAL;
+                case Types.BINARY:
+                case Types.VARBINARY:
+                case Types.LONGVARBINARY:
+                case Types.BLOB:
+                    return BINARY;
+                default:
+                    return OTHER;
+            }
+        }
+
+        boolean canBeBoundTo(ValueCategory column) {
+            if (this == column || this == OTHER || this == TEXT || column == OTHER) {
+                return true;
+            }
+            switch (this) {
+                case NUMBER:
+                case BOOLEAN:
+                    return column == NUMBER || column == BOOLEAN || column == TEXT;
+                case TEMPORAL:
+                    return column == TEXT;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * Liefert die Verbindung, über die die Metadaten gelesen werden
+     */
+    @FunctionalInterface
+    interface ConnectionSource {
+        Connection getConnection() throws SQLException;
+    }
+}
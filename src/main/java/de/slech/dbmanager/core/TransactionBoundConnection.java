@@ -0,0 +1,43 @@
+package de.slech.dbmanager.core;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+
+/**
+ * Invocationhandler für einen Proxy der Verbindung einer laufenden Transaktion, siehe
+ * {@link JdbcHelper#beginTransaction()}. Operationen, die sonst eine eigene Verbindung öffnen und selbst committen,
+ * nehmen so an der Transaktion teil: {@code close}, {@code commit}, {@code rollback} ohne Savepoint und
+ * {@code setAutoCommit} werden ignoriert, alle anderen Aufrufe an die Verbindung weitergereicht.
+ */
+class TransactionBoundConnection implements InvocationHandler {
+
+    private final Connection connection;
+
+    private TransactionBoundConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class},
+                new TransactionBoundConnection(connection));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        final boolean withoutArgs = args == null || args.length == 0;
+        if ("close".equals(method.getName()) && withoutArgs
+                || "commit".equals(method.getName()) && withoutArgs
+                || "rollback".equals(method.getName()) && withoutArgs
+                || "setAutoCommit".equals(method.getName())) {
+            return null;
+        }
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
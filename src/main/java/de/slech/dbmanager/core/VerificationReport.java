@@ -0,0 +1,74 @@
+package de.slech.dbmanager.core;
+
+import de.slech.dbmanager.compare.DiffReport;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of {@link DatabaseManager#verifyExpectedState}: the differences of every verified table and the errors of
+ * tables which could not be read.
+ */
+public class VerificationReport {
+
+    private final Map<String, DiffReport> diffReports = new LinkedHashMap<>();
+    private final Map<String, Throwable> errors = new LinkedHashMap<>();
+
+    VerificationReport() {
+    }
+
+    void addDiffReport(String tableName, DiffReport diffReport) {
+        diffReports.put(tableName, diffReport);
+    }
+
+    void addError(String tableName, Throwable error) {
+        errors.put(tableName, error);
+    }
+
+    /**
+     * @return true, if a table differs from its expected data or could not be read
+     */
+    public boolean hasDifferences() {
+        return !errors.isEmpty() || diffReports.values().stream().anyMatch(DiffReport::hasDifferences);
+    }
+
+    /**
+     * @return the differences per table name
+     */
+    public Map<String, DiffReport> getDiffReports() {
+        return Collections.unmodifiableMap(diffReports);
+    }
+
+    /**
+     * @return the errors per table name of tables which could not be read or compared
+     */
+    public Map<String, Throwable> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * Throws an AssertionError containing the report of all tables, if there is any difference.
+     */
+    public void assertNoDifferences() {
+        if (hasDifferences()) {
+            throw new AssertionError(toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        diffReports.forEach((tableName, diffReport) -> {
+            if (diffReport.hasDifferences()) {
+                sb.append("Table ").append(tableName).append(": ").append(diffReport).append('\n');
+            }
+        });
+        errors.forEach((tableName, error) ->
+                sb.append("Table ").append(tableName).append(": ").append(error).append('\n'));
+        final long differentTables = diffReports.values().stream().filter(DiffReport::hasDifferences).count();
+        sb.append(String.format("Tables verified: %d, with differences: %d, with errors: %d",
+                diffReports.size() + errors.size(), differentTables, errors.size()));
+        return sb.toString();
+    }
+}
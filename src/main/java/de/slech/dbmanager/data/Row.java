@@ -12,7 +12,19 @@ import java.util.stream.Collectors;
  * Die Klasse repräsentiert eine Zeile einer Tabelle {@link DataSet}.
  */
 public class Row {
-    private Map<String, Object> columns = new HashMap<>();
+    private final Map<String, Object> columns;
+
+    public Row() {
+        columns = new HashMap<>();
+    }
+
+    /**
+     * Legt die Zeile so groß an, dass beim Hinzufügen der erwarteten Anzahl Spalten nicht vergrößert werden muss.
+     * @param expectedColumnCount erwartete Anzahl Spalten
+     */
+    public Row(int expectedColumnCount) {
+        columns = new HashMap<>(expectedColumnCount * 4 / 3 + 1);
+    }
 
     public Row addColum(String colName, Object value) {
         columns.put(colName, value);
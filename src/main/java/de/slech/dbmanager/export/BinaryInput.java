@@ -0,0 +1,141 @@
+package de.slech.dbmanager.export;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * Gepuffertes Lesen von Werten, die mit {@link BinaryOutput} geschrieben wurden.
+ */
+public class BinaryInput implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    public BinaryInput(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip();
+    }
+
+    /**
+     * @return true, wenn das Ende des Channels erreicht ist
+     * @throws IOException wenn nicht gelesen werden kann
+     */
+    public boolean isAtEnd() throws IOException {
+        return !buffer.hasRemaining() && !fill();
+    }
+
+    public byte readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    public int readInt() throws IOException {
+        require(4);
+        return buffer.getInt();
+    }
+
+    public long readLong() throws IOException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    /**
+     * Liest einen mit {@link BinaryOutput#writeString} geschriebenen String.
+     * @return der String
+     * @throws IOException wenn nicht gelesen werden kann
+     */
+    public String readString() throws IOException {
+        return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Liest einen mit {@link BinaryOutput#writeValue} geschriebenen Wert.
+     * @return der Wert, kann {@code null} sein; Werte vom Typ {@link BinaryOutput#OTHER} werden als String geliefert
+     * @throws IOException wenn nicht gelesen werden kann
+     */
+    public Object readValue() throws IOException {
+        final byte type = readByte();
+        switch (type) {
+            case BinaryOutput.NULL:
+                return null;
+            case BinaryOutput.STRING:
+            case BinaryOutput.OTHER:
+                return readString();
+            case BinaryOutput.INT:
+                return readInt();
+            case BinaryOutput.LONG:
+                return readLong();
+            case BinaryOutput.SHORT:
+                require(2);
+                return buffer.getShort();
+            case BinaryOutput.BYTE:
+                return readByte();
+            case BinaryOutput.BOOLEAN:
+                return readByte() != 0;
+            case BinaryOutput.DOUBLE:
+                require(8);
+                return buffer.getDouble();
+            case BinaryOutput.FLOAT:
+                require(4);
+                return buffer.getFloat();
+            case BinaryOutput.DECIMAL:
+                return new BigDecimal(readString());
+            case BinaryOutput.TIMESTAMP:
+                final Timestamp timestamp = new Timestamp(readLong());
+                timestamp.setNanos(readInt());
+                return timestamp;
+            case BinaryOutput.DATE:
+                return new Date(readLong());
+            case BinaryOutput.TIME:
+                return new Time(readLong());
+            case BinaryOutput.BYTES:
+                return readBytes();
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private byte[] readBytes() throws IOException {
+        final byte[] bytes = new byte[readInt()];
+        int offset = 0;
+        while (offset < bytes.length) {
+            require(1);
+            final int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.get(bytes, offset, length);
+            offset += length;
+        }
+        return bytes;
+    }
+
+    private void require(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            if (!fill()) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        buffer.compact();
+        try {
+            return channel.read(buffer) > 0;
+        } finally {
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package de.slech.dbmanager.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * Gepufferte Ausgabe von typisierten Werten in einen Channel. Jeder Wert wird mit einem Typ-Byte geschrieben,
+ * gefolgt von seinem Inhalt:
+ * <ul>
+ * <li>{@link #NULL}: kein Inhalt</li>
+ * <li>{@link #STRING}, {@link #DECIMAL}, {@link #OTHER}: Länge als int und UTF-8 Bytes, DECIMAL als
+ * {@link BigDecimal#toString()}, OTHER als {@link Object#toString()}</li>
+ * <li>{@link #INT}, {@link #LONG}, {@link #SHORT}, {@link #BYTE}, {@link #DOUBLE}, {@link #FLOAT}: big endian</li>
+ * <li>{@link #BOOLEAN}: ein Byte 0 oder 1</li>
+ * <li>{@link #TIMESTAMP}: Millisekunden als long und Nanosekunden als int</li>
+ * <li>{@link #DATE}, {@link #TIME}: Millisekunden als long</li>
+ * <li>{@link #BYTES}: Länge als int und die Bytes</li>
+ * </ul>
+ */
+public class BinaryOutput implements Closeable {
+
+    public static final byte NULL = 0;
+    public static final byte STRING = 1;
+    public static final byte INT = 2;
+    public static final byte LONG = 3;
+    public static final byte SHORT = 4;
+    public static final byte BYTE = 5;
+    public static final byte BOOLEAN = 6;
+    public static final byte DOUBLE = 7;
+    public static final byte FLOAT = 8;
+    public static final byte DECIMAL = 9;
+    public static final byte TIMESTAMP = 10;
+    public static final byte DATE = 11;
+    public static final byte TIME = 12;
+    public static final byte BYTES = 13;
+    public static final byte OTHER = 14;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    public BinaryOutput(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public void writeByte(byte value) throws IOException {
+        ensureCapacity(1);
+        buffer.put(value);
+    }
+
+    public void writeInt(int value) throws IOException {
+        ensureCapacity(4);
+        buffer.putInt(value);
+    }
+
+    public void writeLong(long value) throws IOException {
+        ensureCapacity(8);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Schreibt den String ohne Typ-Byte als Länge und UTF-8 Bytes.
+     * @param value zu schreibender String, nicht {@code null}
+     * @throws IOException wenn nicht geschrieben werden kann
+     */
+    public void writeString(String value) throws IOException {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Schreibt den Wert mit Typ-Byte.
+     * @param value zu schreibender Wert, darf {@code null} sein
+     * @throws IOException wenn nicht geschrieben werden kann
+     */
+    public void writeValue(Object value) throws IOException {
+        if (value == null) {
+            writeByte(NULL);
+        } else if (value instanceof String) {
+            writeByte(STRING);
+            writeString((String) value);
+        } else if (value instanceof Integer) {
+            writeByte(INT);
+            writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            writeByte(LONG);
+            writeLong((Long) value);
+        } else if (value instanceof Short) {
+            writeByte(SHORT);
+            ensureCapacity(2);
+            buffer.putShort((Short) value);
+        } else if (value instanceof Byte) {
+            writeByte(BYTE);
+            writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            writeByte(BOOLEAN);
+            writeByte((byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof Double) {
+            writeByte(DOUBLE);
+            ensureCapacity(8);
+            buffer.putDouble((Double) value);
+        } else if (value instanceof Float) {
+            writeByte(FLOAT);
+            ensureCapacity(4);
+            buffer.putFloat((Float) value);
+        } else if (value instanceof BigDecimal) {
+            writeByte(DECIMAL);
+            writeString(value.toString());
+        } else if (value instanceof Timestamp) {
+            writeByte(TIMESTAMP);
+            writeLong(((Timestamp) value).getTime());
+            writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof Date) {
+            writeByte(DATE);
+            writeLong(((Date) value).getTime());
+        } else if (value instanceof Time) {
+            writeByte(TIME);
+            writeLong(((Time) value).getTime());
+        } else if (value instanceof byte[]) {
+            writeByte(BYTES);
+            writeBytes((byte[]) value);
+        } else {
+            writeByte(OTHER);
+            writeString(value.toString());
+        }
+    }
+
+    /**
+     * Schreibt den Puffer in den Channel.
+     * @throws IOException wenn nicht geschrieben werden kann
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        writeInt(bytes.length);
+        if (bytes.length <= buffer.capacity()) {
+            ensureCapacity(bytes.length);
+            buffer.put(bytes);
+        } else {
+            flush();
+            final ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+        }
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.slech.dbmanager.export;
+
+import de.slech.dbmanager.data.Row;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schreibt Zeilen in einem kompakten Binärformat in einen Channel. Aufbau:
+ * <ul>
+ * <li>Kopf: die Bytes {@code DBMX}, Version als Byte, Anzahl der Spalten als int, Spaltennamen als Länge und
+ * UTF-8 Bytes</li>
+ * <li>je Zeile: Byte 1, danach die typisierten Werte der Spalten, siehe {@link BinaryOutput#writeValue}</li>
+ * <li>Ende: Byte 0</li>
+ * </ul>
+ */
+class BinaryRowWriter implements RowWriter {
+
+    static final byte[] MAGIC = {'D', 'B', 'M', 'X'};
+    static final byte VERSION = 1;
+    static final byte ROW = 1;
+    static final byte END = 0;
+
+    private final BinaryOutput output;
+    private final List<String> columns;
+
+    BinaryRowWriter(WritableByteChannel channel, List<String> columns) throws IOException {
+        this.output = new BinaryOutput(channel);
+        this.columns = new ArrayList<>(columns);
+        for (byte b : MAGIC) {
+            output.writeByte(b);
+        }
+        output.writeByte(VERSION);
+        output.writeInt(this.columns.size());
+        for (String column : this.columns) {
+            output.writeString(column);
+        }
+    }
+
+    @Override
+    public void writeRow(Row row) throws IOException {
+        output.writeByte(ROW);
+        for (String column : columns) {
+            output.writeValue(row.getColumnValue(column));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            output.writeByte(END);
+        } finally {
+            output.close();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package de.slech.dbmanager.export;
+
+import de.slech.dbmanager.data.Row;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Schreibt Zeilen als CSV in einen Channel. Es wird nur ein Puffer fester Größe verwendet.
+ */
+class CsvRowWriter implements RowWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final List<String> columns;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    CsvRowWriter(WritableByteChannel channel, List<String> columns) throws IOException {
+        this.channel = channel;
+        this.columns = new ArrayList<>(columns);
+        for (int i = 0; i < this.columns.size(); i++) {
+            writeField(i, this.columns.get(i));
+        }
+        append("\r\n");
+    }
+
+    @Override
+    public void writeRow(Row row) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            writeField(i, row.getColumnValue(columns.get(i)));
+        }
+        append("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            encode(CharBuffer.allocate(0), true);
+            while (encoder.flush(buffer) == CoderResult.OVERFLOW) {
+                flushBuffer();
+            }
+            flushBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeField(int index, Object value) throws IOException {
+        if (index > 0) {
+            append(",");
+        }
+        if (value == null) {
+            return;
+        }
+        final String text = value instanceof byte[] ? Base64.getEncoder().encodeToString((byte[]) value)
+                : value.toString();
+        if (text.isEmpty() || needsQuotes(text)) {
+            append("\"");
+            append(text.replace("\"", "\"\""));
+            append("\"");
+        } else {
+            append(text);
+        }
+    }
+
+    private static boolean needsQuotes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void append(String text) throws IOException {
+        encode(CharBuffer.wrap(text), false);
+    }
+
+    private void encode(CharBuffer chars, boolean endOfInput) throws IOException {
+        CoderResult result = encoder.encode(chars, buffer, endOfInput);
+        while (result.isOverflow()) {
+            flushBuffer();
+            result = encoder.encode(chars, buffer, endOfInput);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,72 @@
+package de.slech.dbmanager.export;
+
+import de.slech.dbmanager.data.DataSet;
+import de.slech.dbmanager.data.Row;
+import de.slech.dbmanager.exeption.SystemException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Exportiert {@link DataSet}s in eine Datei. Die Zeilen werden einzeln geschrieben, es wird kein String für das
+ * gesamte DataSet erzeugt.
+ */
+public class DataSetExporter {
+
+    private DataSetExporter() {
+        throw new UnsupportedOperationException("Keine Instanzierung möglich");
+    }
+
+    /**
+     * Schreibt das DataSet in die Datei. Die Spalten sind alle Spalten der Zeilen in der Reihenfolge ihres ersten
+     * Auftretens.
+     * @param dataSet zu exportierendes DataSet
+     * @param file Zieldatei, wird überschrieben falls vorhanden
+     * @param format Format der Datei
+     */
+    public static void export(DataSet dataSet, Path file, ExportFormat format) {
+        final Set<String> columns = new LinkedHashSet<>();
+        dataSet.stream().forEachOrdered(row -> columns.addAll(row.getColumns().keySet()));
+        try (RowWriter writer = createWriter(file, new ArrayList<>(columns), format)) {
+            dataSet.stream().forEachOrdered(row -> writeRow(writer, row));
+        } catch (IOException e) {
+            throw new SystemException(e);
+        } catch (UncheckedIOException e) {
+            throw new SystemException(e.getCause());
+        }
+    }
+
+    /**
+     * Öffnet die Datei und erzeugt einen Writer für das Format.
+     * @param file Zieldatei, wird überschrieben falls vorhanden
+     * @param columns zu schreibende Spalten in dieser Reihenfolge
+     * @param format Format der Datei
+     * @return der Writer, muss vom Aufrufer geschlossen werden
+     * @throws IOException wenn die Datei nicht geöffnet werden kann
+     */
+    public static RowWriter createWriter(Path file, List<String> columns, ExportFormat format) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            return format.createWriter(channel, columns);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void writeRow(RowWriter writer, Row row) {
+        try {
+            writer.writeRow(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package de.slech.dbmanager.export;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Formate, in die Tabellen und {@link de.slech.dbmanager.data.DataSet}s exportiert werden können.
+ */
+public enum ExportFormat {
+    /**
+     * CSV nach RFC 4180 mit Kopfzeile, UTF-8 kodiert. {@code null} wird als leeres Feld, ein leerer String als
+     * {@code ""} geschrieben.
+     */
+    CSV {
+        @Override
+        public RowWriter createWriter(WritableByteChannel channel, List<String> columns) throws IOException {
+            return new CsvRowWriter(channel, columns);
+        }
+    },
+    /**
+     * Kompaktes Binärformat mit typisierten Werten, siehe {@link BinaryRowWriter}.
+     */
+    BINARY {
+        @Override
+        public RowWriter createWriter(WritableByteChannel channel, List<String> columns) throws IOException {
+            return new BinaryRowWriter(channel, columns);
+        }
+    };
+
+    /**
+     * Erzeugt einen Writer, der in den Channel schreibt. Beim Schließen des Writers wird auch der Channel
+     * geschlossen.
+     * @param channel Ziel des Exports
+     * @param columns zu schreibende Spalten in dieser Reihenfolge
+     * @return der Writer
+     * @throws IOException wenn der Kopf nicht geschrieben werden kann
+     */
+    public abstract RowWriter createWriter(WritableByteChannel channel, List<String> columns) throws IOException;
+}
@@ -0,0 +1,21 @@
+package de.slech.dbmanager.export;
+
+import de.slech.dbmanager.data.Row;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Schreibt Zeilen fortlaufend in ein Ziel, ohne sie im Speicher zu sammeln. Die Spalten werden beim Erzeugen des
+ * Writers festgelegt, siehe {@link ExportFormat#createWriter}.
+ */
+public interface RowWriter extends Closeable {
+
+    /**
+     * Schreibt die Werte der Zeile in der Reihenfolge der Spalten des Writers. Fehlt eine Spalte, wird
+     * {@code null} geschrieben.
+     * @param row zu schreibende Zeile
+     * @throws IOException wenn nicht geschrieben werden kann
+     */
+    void writeRow(Row row) throws IOException;
+}
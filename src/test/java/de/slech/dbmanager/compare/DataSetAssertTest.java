@@ -0,0 +1,117 @@
+package de.slech.dbmanager.compare;
+
+import de.slech.dbmanager.data.DataSet;
+import de.slech.dbmanager.data.Row;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Prüft, dass der Vergleich der DataSets dieselben Ergebnisse liefert wie der frühere Vergleich, der die tatsächlichen
+ * Zeilen der Reihe nach durchsucht und gefundene Zeilen entfernt hat.
+ */
+public class DataSetAssertTest {
+
+    @Test
+    public void expectedRowsMayContainSubsetOfColumns() {
+        final DataSet actual = dataSet(user(1, "Huber"), user(2, "Maier"));
+
+        DataSetAssert.assertContainsExpectedData(dataSet(name("Maier"), name("Huber")), actual);
+
+        final String message = assertionMessage(dataSet(name("Maier"), name("Schmidt")), actual, CompareMode.DEFAULT);
+        assertTrue(message, message.startsWith("Number of expected rows: 2, actual: 2, missing: 1, unexpected: 1"));
+        assertTrue(message, message.contains("Expected row not found: Row: (\"name\": \"Schmidt\");"));
+    }
+
+    @Test
+    public void eachActualRowMatchesOnlyOneExpectedRow() {
+        DataSetAssert.assertContainsExpectedData(dataSet(name("Huber"), name("Huber")),
+                dataSet(user(1, "Huber"), user(2, "Huber")));
+
+        final DiffReport report = DataSetAssert.diff(dataSet(name("Huber"), name("Huber")),
+                dataSet(user(1, "Huber"), user(2, "Maier")), CompareMode.DEFAULT);
+        assertEquals(1, report.getMissingCount());
+        assertEquals(1, report.getUnexpectedCount());
+    }
+
+    @Test
+    public void exactRowSequenceComparesRowsByPosition() {
+        final DataSet expected = dataSet(user(1, "Huber"), user(2, "Maier"));
+        final DataSet actual = dataSet(user(2, "Maier"), user(1, "Huber"));
+
+        DataSetAssert.assertContainsExpectedData(expected, actual, new CompareMode(false));
+
+        final DiffReport report = DataSetAssert.diff(expected, actual, new CompareMode(true));
+        assertEquals(2, report.getChangedCount());
+        assertEquals(0, report.getMissingCount());
+        assertEquals(0, report.getUnexpectedCount());
+        assertTrue(report.toString(), report.toString().contains("Changed row at position 0:"));
+    }
+
+    @Test
+    public void differentRowCountFails() {
+        final String message = assertionMessage(dataSet(user(1, "Huber")),
+                dataSet(user(1, "Huber"), user(2, "Maier")), CompareMode.DEFAULT);
+
+        assertTrue(message, message.startsWith("Number of expected rows: 1, actual: 2, missing: 0, unexpected: 1"));
+        assertTrue(message, message.contains("Unexpected row: "));
+
+        final DiffReport report = DataSetAssert.diff(dataSet(user(1, "Huber"), user(2, "Maier")),
+                dataSet(user(1, "Huber")), new CompareMode(true));
+        assertEquals(1, report.getMissingCount());
+    }
+
+    @Test
+    public void rowsWithSameKeyArePairedAsChanged() {
+        final DataSet expected = dataSet(user(1, "Huber"), user(2, "Schmidt"));
+        final DataSet actual = dataSet(user(2, "Maier"), user(1, "Huber"));
+
+        final DiffReport report = DataSetAssert.diff(expected, actual, new CompareMode(false).withKeyColumns("id"));
+
+        assertEquals(1, report.getChangedCount());
+        assertEquals(0, report.getMissingCount());
+        assertEquals(0, report.getUnexpectedCount());
+        assertEquals(Arrays.asList("Changed row with key [2]: (name: expected \"Schmidt\", actual \"Maier\")"),
+                report.getSample());
+    }
+
+    @Test
+    public void reportedDifferencesAreLimited() {
+        final DataSet expected = dataSet(name("A"), name("B"), name("C"), name("D"), name("E"));
+
+        final DiffReport report = DataSetAssert.diff(expected, new DataSet(),
+                new CompareMode(false).withMaxReportedDifferences(2));
+
+        assertEquals(5, report.getMissingCount());
+        assertEquals(2, report.getSample().size());
+        assertTrue(report.toString(), report.toString().endsWith("\n... 3 more differences"));
+    }
+
+    private static String assertionMessage(DataSet expected, DataSet actual, CompareMode compareMode) {
+        try {
+            DataSetAssert.assertContainsExpectedData(expected, actual, compareMode);
+        } catch (AssertionError e) {
+            return e.getMessage();
+        }
+        fail("The data sets should differ");
+        return null;
+    }
+
+    private static DataSet dataSet(Row... rows) {
+        final DataSet dataSet = new DataSet();
+        Arrays.stream(rows).forEach(dataSet::addRow);
+        return dataSet;
+    }
+
+    private static Row user(int id, String name) {
+        return new Row().addColum("id", id).addColum("name", name);
+    }
+
+    private static Row name(String name) {
+        return new Row().addColum("name", name);
+    }
+}
@@ -0,0 +1,107 @@
+package de.slech.dbmanager.core;
+
+import de.slech.dbmanager.data.Row;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Misst die Anzahl Bytes, die der Invocationhandler je gebauter Zeile anlegt. Erwartet werden die Zeile selbst mit
+ * ihrer Map, je Spalte ein Eintrag der Map und das Argument Array, das {@link Proxy} je Aufruf anlegt.
+ */
+public class TableManagerAllocationTest {
+
+    private static final int WARM_UP_ROWS = 200_000;
+    private static final int MEASURED_ROWS = 1_000_000;
+    private static final String[] COLUMNS = {"id", "name", "active"};
+    /**
+     * Row mit HashMap und Tabelle, je Spalte ein Map Eintrag und ein Argument Array, mit Reserve für JVMs ohne
+     * komprimierte Referenzen
+     */
+    private static final long BYTES_PER_ROW_LIMIT = 128 + 3 * 96;
+
+    public interface IUser extends TableManager<IUser> {
+        IUser id(int id);
+        IUser name(String name);
+        IUser active(boolean active);
+    }
+
+    @Test
+    public void buildingRowsStaysWithinAllocationBudget() {
+        final DatabaseManager.TableManagerInvocationHandler handler =
+                new DatabaseManager.TableManagerInvocationHandler(IUser.class, new JdbcHelper(createDataSource()));
+        final Row[] lastRow = new Row[1];
+        handler.setRowSink(row -> lastRow[0] = row);
+        final IUser user = (IUser) Proxy.newProxyInstance(IUser.class.getClassLoader(), new Class[]{IUser.class},
+                handler);
+        user.setDefaultValues().active(true).generateValuesFor().id(1).newDataSetWithRow();
+        final String name = "Huber";
+
+        buildRows(user, name, WARM_UP_ROWS);
+        final long bytesPerRow = buildRows(user, name, MEASURED_ROWS) / MEASURED_ROWS;
+
+        assertEquals(WARM_UP_ROWS + MEASURED_ROWS, lastRow[0].getColumnValue("id"));
+        assertTrue("Bytes per row: " + bytesPerRow, bytesPerRow <= BYTES_PER_ROW_LIMIT);
+    }
+
+    private static long buildRows(IUser user, String name, int rowCount) {
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < rowCount; i++) {
+            user.name(name).andRow();
+        }
+        return threadMXBean.getThreadAllocatedBytes(threadId) - start;
+    }
+
+    /**
+     * DataSource, deren Metadaten die Spalten {@link #COLUMNS} für jede Tabelle liefern
+     */
+    private static DataSource createDataSource() {
+        final DatabaseMetaData metaData = proxy(DatabaseMetaData.class, (method, args) -> {
+            if ("getSearchStringEscape".equals(method)) {
+                return "\\";
+            }
+            return "getColumns".equals(method) ? createColumnsResultSet() : null;
+        });
+        final Connection connection = proxy(Connection.class,
+                (method, args) -> "getMetaData".equals(method) ? metaData : null);
+        return proxy(DataSource.class, (method, args) -> "getConnection".equals(method) ? connection : null);
+    }
+
+    private static ResultSet createColumnsResultSet() {
+        final int[] index = {-1};
+        return proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "next":
+                    return ++index[0] < COLUMNS.length;
+                case "getString":
+                    return "COLUMN_NAME".equals(args[0]) ? COLUMNS[index[0]] : null;
+                case "getInt":
+                    return index[0] == 0 ? Types.INTEGER : index[0] == 1 ? Types.VARCHAR : Types.BOOLEAN;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, MethodAnswer answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type},
+                (proxy, method, args) -> answer.answer(method.getName(), args)));
+    }
+
+    @FunctionalInterface
+    private interface MethodAnswer {
+        Object answer(String method, Object[] args);
+    }
+}
@@ -0,0 +1,150 @@
+package de.slech.dbmanager.core;
+
+import de.slech.dbmanager.compare.CompareMode;
+import de.slech.dbmanager.compare.DiffReport;
+import de.slech.dbmanager.data.DataSet;
+import de.slech.dbmanager.data.Row;
+import org.junit.Test;
+
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Prüft, dass beim gleichzeitigen Vergleich mehrerer Tabellen jede Tabelle über ihre eigene {@code @Id} Spalte
+ * verglichen wird und ihre Abweichungen in eine eigene Datei schreibt.
+ */
+public class VerifyExpectedStateTest {
+
+    @Table(name = "users")
+    public interface IUser extends TableManager<IUser> {
+        @Id
+        IUser id(int id);
+        IUser name(String name);
+    }
+
+    @Table(name = "orders")
+    public interface IOrder extends TableManager<IOrder> {
+        @Id
+        IOrder orderId(int orderId);
+        IOrder amount(int amount);
+    }
+
+    @Test
+    public void differencesOfEachTableAreWrittenToOwnFile() throws IOException {
+        final Map<String, DataSet> tables = new LinkedHashMap<>();
+        tables.put("users", dataSet(row("id", 1, "name", "Huber"), row("id", 2, "name", "Maier")));
+        tables.put("orders", dataSet(row("orderId", 10, "amount", 5)));
+        final Map<Class<? extends TableManager<?>>, DataSet> expectedData = new LinkedHashMap<>();
+        expectedData.put(IUser.class, dataSet(row("id", 1, "name", "Huber"), row("id", 2, "name", "Schmidt")));
+        expectedData.put(IOrder.class, dataSet(row("orderId", 10, "amount", 5), row("orderId", 11, "amount", 7)));
+        final Path diffFile = Files.createTempDirectory("verify").resolve("diff.txt");
+
+        final VerificationReport report = new DatabaseManager(createDataSource(tables))
+                .verifyExpectedState(expectedData, new CompareMode(false).withDiffFile(diffFile), 2);
+
+        assertTrue(report.getErrors().toString(), report.getErrors().isEmpty());
+        final DiffReport users = report.getDiffReports().get("users");
+        assertEquals(1, users.getChangedCount());
+        assertEquals(diffFile.resolveSibling("diff.txt-users"), users.getDiffFile());
+        assertEquals(
+                Collections.singletonList("Changed row with key [2]: (name: expected \"Schmidt\", actual \"Maier\")"),
+                Files.readAllLines(users.getDiffFile(), StandardCharsets.UTF_8));
+        final DiffReport orders = report.getDiffReports().get("orders");
+        assertEquals(1, orders.getMissingCount());
+        assertEquals(diffFile.resolveSibling("diff.txt-orders"), orders.getDiffFile());
+        final List<String> orderDifferences = Files.readAllLines(orders.getDiffFile(), StandardCharsets.UTF_8);
+        assertEquals(1, orderDifferences.size());
+        assertTrue(orderDifferences.get(0), orderDifferences.get(0).startsWith("Expected row not found: "));
+        assertTrue(Files.notExists(diffFile));
+    }
+
+    private static DataSet dataSet(Row... rows) {
+        final DataSet dataSet = new DataSet();
+        Arrays.stream(rows).forEach(dataSet::addRow);
+        return dataSet;
+    }
+
+    private static Row row(String keyColumn, Object key, String column, Object value) {
+        return new Row().addColum(keyColumn, key).addColum(column, value);
+    }
+
+    /**
+     * DataSource, deren Metadaten die Spalten der ersten Zeile jeder Tabelle liefern und deren Abfragen die Zeilen der
+     * Tabelle liefern, deren Name in der Abfrage vorkommt
+     */
+    private static DataSource createDataSource(Map<String, DataSet> tables) {
+        final DatabaseMetaData metaData = proxy(DatabaseMetaData.class,
+                (method, args) -> "getColumns".equals(method) ? createColumnsResultSet(tables.get(args[2])) : null);
+        final Connection connection = proxy(Connection.class, (method, args) -> {
+            switch (method) {
+                case "getMetaData":
+                    return metaData;
+                case "prepareStatement":
+                    return createStatement(tables.get(((String) args[0]).trim().replaceAll(".* from ", "")));
+                default:
+                    return null;
+            }
+        });
+        return proxy(DataSource.class, (method, args) -> "getConnection".equals(method) ? connection : null);
+    }
+
+    private static ResultSet createColumnsResultSet(DataSet table) {
+        final DataSet columns = new DataSet();
+        table.stream().findFirst().ifPresent(row -> row.getColumns().forEach((column, value) -> columns.addRow(
+                row("COLUMN_NAME", column, "DATA_TYPE", value instanceof Integer ? Types.INTEGER : Types.VARCHAR))));
+        return createResultSet(columns);
+    }
+
+    private static PreparedStatement createStatement(DataSet table) {
+        return proxy(PreparedStatement.class,
+                (method, args) -> "executeQuery".equals(method) ? createResultSet(table) : null);
+    }
+
+    private static ResultSet createResultSet(DataSet dataSet) {
+        final Row[] rows = dataSet.stream().toArray(Row[]::new);
+        final int[] index = {-1};
+        return proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "next":
+                    return ++index[0] < rows.length;
+                case "getObject":
+                case "getString":
+                case "getInt":
+                    return rows[index[0]].getColumnValue((String) args[0]);
+                case "wasNull":
+                    return false;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, MethodAnswer answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type},
+                (proxy, method, args) -> answer.answer(method.getName(), args)));
+    }
+
+    @FunctionalInterface
+    private interface MethodAnswer {
+        Object answer(String method, Object[] args);
+    }
+}